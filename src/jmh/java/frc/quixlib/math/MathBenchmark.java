@@ -0,0 +1,100 @@
+package frc.quixlib.math;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks the quixlib math helpers that run in the robot loop. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MathBenchmark {
+  private final DoubleInterpolatableTreeMap<Double> m_treeMap =
+      new DoubleInterpolatableTreeMap<>();
+  private DoubleLerpTable m_lerpTable;
+  private final double[] m_lerpOut = new double[3];
+  private final Twist2d m_twist = new Twist2d(0.3, -0.1, 0.2);
+  private final Pose2d m_pose = new Pose2d(1.0, 2.0, Rotation2d.fromDegrees(30.0));
+  private final Matrix<N3, N1> m_cartesian = CameraMathUtils.beSph2Cart(0.2, 0.1);
+  private double m_key = 0.0;
+
+  @Setup
+  public void setup() {
+    // Roughly the size of a shot map.
+    final double[][] rows = new double[20][];
+    for (int i = 0; i < 20; i++) {
+      m_treeMap.set(i * 0.25, Interpolatable.interDouble(Math.sqrt(i)));
+      rows[i] = new double[] {i * 0.25, Math.sqrt(i), i, 0.1 * i};
+    }
+    m_lerpTable = new DoubleLerpTable(rows);
+  }
+
+  private double nextKey() {
+    // Step through the table so that lookups hit different intervals.
+    m_key += 0.37;
+    if (m_key > 5.0) {
+      m_key -= 5.0;
+    }
+    return m_key;
+  }
+
+  @Benchmark
+  public Double treeMapGet() {
+    return m_treeMap.get(nextKey());
+  }
+
+  @Benchmark
+  public double lerpTableGet() {
+    return m_lerpTable.get(nextKey(), 0);
+  }
+
+  @Benchmark
+  public double[] lerpTableGetRow() {
+    m_lerpTable.get(nextKey(), m_lerpOut);
+    return m_lerpOut;
+  }
+
+  @Benchmark
+  public Pose2d exp() {
+    return MathUtils.exp(m_twist);
+  }
+
+  @Benchmark
+  public Twist2d log() {
+    return MathUtils.log(m_pose);
+  }
+
+  @Benchmark
+  public Pair<Double, Double> cart2BEPinhole() {
+    return CameraMathUtils.cart2BEPinhole(m_cartesian);
+  }
+
+  @Benchmark
+  public Matrix<N3, N1> pinholeBE2Cart() {
+    return CameraMathUtils.pinholeBE2Cart(0.2, 0.1);
+  }
+
+  @Benchmark
+  public Pair<Double, Double> XYToYawPitchWithHeightAndFOV() {
+    return CameraMathUtils.XYToYawPitchWithHeightAndFOV(
+        412.0, 263.0, 960.0, 720.0, Math.toRadians(70.0), Math.toRadians(50.0));
+  }
+
+  @Benchmark
+  public Pair<Double, Double> yawPitchToXY() {
+    return CameraMathUtils.yawPitchToXY(
+        0.1, -0.05, 960.0, 720.0, Math.toRadians(70.0), Math.toRadians(50.0));
+  }
+}
@@ -0,0 +1,30 @@
+package frc.quixlib.motorcontrol;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks the native sensor unit conversions used by every setpoint and getter. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuixTalonFXBenchmark {
+  private final MechanismRatio m_ratio = new MechanismRatio(12.0, 60.0);
+  private double m_position = 0.5;
+
+  @Benchmark
+  public double toNativeSensorPosition() {
+    m_position += 1e-3;
+    return QuixTalonFX.toNativeSensorPosition(m_position, m_ratio, 0.1);
+  }
+
+  @Benchmark
+  public double fromNativeSensorPosition() {
+    m_position += 1e-3;
+    return QuixTalonFX.fromNativeSensorPosition(m_position, m_ratio, 0.1);
+  }
+}
@@ -0,0 +1,54 @@
+package frc.quixlib.planning;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+
+/** Benchmarks regenerating and sampling an S-curve profile, as subsystems do every loop. */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuixSCurveProfileBenchmark {
+  private final QuixSCurveProfile.Constraints m_constraints =
+      new QuixSCurveProfile.Constraints(2.0, 8.0, 100.0);
+  private final State m_out = new State();
+  private final double[] m_pos = new double[50];
+  private final double[] m_vel = new double[50];
+  private QuixSCurveProfile m_profile;
+
+  @Setup
+  public void setup() {
+    m_profile = new QuixSCurveProfile(m_constraints, new State(1.2, 0.0), new State(0.1, 0.3));
+  }
+
+  @Benchmark
+  public State calculateInto() {
+    return m_profile.calculateInto(0.02, m_out);
+  }
+
+  /** Short move where max acceleration is not reached, so the peak velocity is bisected. */
+  @Benchmark
+  public State resetShortAndCalculateInto() {
+    m_profile.reset(m_constraints, 0.15, 0.0, 0.1, 0.0);
+    return m_profile.calculateInto(0.02, m_out);
+  }
+
+  /** Long move that cruises at max velocity. */
+  @Benchmark
+  public State resetLongAndCalculateInto() {
+    m_profile.reset(m_constraints, 3.0, 0.0, 0.1, 0.3);
+    return m_profile.calculateInto(0.02, m_out);
+  }
+
+  /** One second of look-ahead at 50 Hz. */
+  @Benchmark
+  public double[] sampleInto() {
+    m_profile.sampleInto(0.0, 0.02, m_pos.length, m_pos, m_vel);
+    return m_pos;
+  }
+}
@@ -0,0 +1,49 @@
+package frc.quixlib.planning;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
+import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+
+/** Benchmarks constructing and sampling a profile, as subsystems do every loop. */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuixTrapezoidProfileBenchmark {
+  private final Constraints m_constraints = new Constraints(2.0, 8.0);
+  private final State m_goal = new State(1.2, 0.0);
+  private final State m_initial = new State(0.1, 0.3);
+  private final State m_out = new State();
+  private QuixTrapezoidProfile m_profile;
+
+  @Setup
+  public void setup() {
+    m_profile = new QuixTrapezoidProfile(m_constraints, m_goal, m_initial);
+  }
+
+  @Benchmark
+  public QuixTrapezoidProfile construct() {
+    return new QuixTrapezoidProfile(m_constraints, m_goal, m_initial);
+  }
+
+  @Benchmark
+  public State calculate() {
+    return m_profile.calculate(0.02);
+  }
+
+  @Benchmark
+  public State constructAndCalculate() {
+    return new QuixTrapezoidProfile(m_constraints, m_goal, m_initial).calculate(0.02);
+  }
+
+  @Benchmark
+  public State resetAndCalculateInto() {
+    m_profile.reset(m_constraints, m_goal, m_initial);
+    return m_profile.calculateInto(0.02, m_out);
+  }
+}
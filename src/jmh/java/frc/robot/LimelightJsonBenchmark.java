@@ -0,0 +1,57 @@
+package frc.robot;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the databind path used by LimelightHelpers.getLatestResults() against the streaming
+ * SelectiveResultsReader on Limelight JSON dumps stored in src/jmh/resources/limelight.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LimelightJsonBenchmark {
+  @Param({"two_tags", "six_tags"})
+  public String dump;
+
+  private String m_json;
+  private ObjectMapper m_mapper;
+  private LimelightHelpers.SelectiveResultsReader m_reader;
+
+  @Setup
+  public void setup() throws IOException {
+    try (InputStream in = getClass().getResourceAsStream("/limelight/" + dump + ".json")) {
+      m_json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    m_mapper =
+        new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    m_reader =
+        new LimelightHelpers.SelectiveResultsReader(
+            EnumSet.of(
+                LimelightHelpers.ResultField.BOTPOSE_WPIBLUE,
+                LimelightHelpers.ResultField.FIDUCIALS));
+  }
+
+  @Benchmark
+  public LimelightHelpers.LimelightResults databind() throws IOException {
+    return m_mapper.readValue(m_json, LimelightHelpers.LimelightResults.class);
+  }
+
+  @Benchmark
+  public LimelightHelpers.SelectiveResults selective() {
+    return m_reader.parse(m_json);
+  }
+}
@@ -0,0 +1,28 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks the per-frame vision std-dev heuristic. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VisionBenchmark {
+  @Param({"1", "4"})
+  public int numTags;
+
+  private final int[] m_tagIds = {7, 8, 6, 9};
+  private final double[] m_stdDevs = new double[3];
+
+  @Benchmark
+  public double[] estimateStdDevs() {
+    Vision.estimateStdDevs(12.3, 4.1, m_tagIds, numTags, m_stdDevs);
+    return m_stdDevs;
+  }
+}
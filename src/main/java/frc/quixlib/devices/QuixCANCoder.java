@@ -28,17 +28,23 @@ public class QuixCANCoder implements QuixAbsoluteEncoder {
     m_simState = m_cancoder.getSimState();
     m_ratio = ratio;
 
+    // Precompute native to MechanismRatio unit conversions.
+    final double positionScale = fromNativeSensorPosition(1.0);
+    final double velocityScale = fromNativeSensorVelocity(1.0);
     m_positionSignal =
-        new QuixStatusSignal<>(m_cancoder.getPosition(), this::fromNativeSensorPosition);
+        new QuixStatusSignal<>(m_cancoder.getPosition(), positionScale, 0.0, m_canID);
     m_absolutePositionSignal =
-        new QuixStatusSignal<>(m_cancoder.getAbsolutePosition(), this::fromNativeSensorPosition);
+        new QuixStatusSignal<>(m_cancoder.getAbsolutePosition(), positionScale, 0.0, m_canID);
     m_velocitySignal =
-        new QuixStatusSignal<>(m_cancoder.getVelocity(), this::fromNativeSensorVelocity);
+        new QuixStatusSignal<>(m_cancoder.getVelocity(), velocityScale, 0.0, m_canID);
 
     // Clear reset flag.
     m_cancoder.hasResetOccurred();
 
     SmartDashboard.putBoolean("CANCoder Configuration " + m_canID.toString(), setConfiguration());
+
+    // Populate the cached signals so getters are valid before the first registry refresh.
+    QuixStatusSignal.refreshAll(m_positionSignal, m_absolutePositionSignal, m_velocitySignal);
   }
 
   public boolean setConfiguration() {
@@ -115,18 +121,15 @@ public class QuixCANCoder implements QuixAbsoluteEncoder {
   }
 
   public double getPosition() {
-    m_positionSignal.refresh();
-    return (double) m_positionSignal.getRawValue();
+    return m_positionSignal.getDouble();
   }
 
   public double getAbsPosition() {
-    m_absolutePositionSignal.refresh();
-    return (double) m_absolutePositionSignal.getRawValue();
+    return m_absolutePositionSignal.getDouble();
   }
 
   public double getVelocity() {
-    m_velocitySignal.refresh();
-    return (double) m_velocitySignal.getRawValue();
+    return m_velocitySignal.getDouble();
   }
 
   private double toNativeSensorPosition(final double pos) {
@@ -0,0 +1,112 @@
+package frc.quixlib.devices;
+
+/**
+ * A fixed-size ring buffer of (timestamp, value) samples for a single signal. All storage is
+ * preallocated, so adding and querying samples does not allocate.
+ *
+ * <p>Timestamps are in seconds using the Phoenix timebase (see Utils.getCurrentTimeSeconds()).
+ * Values are in the unit-converted units of the sampled QuixStatusSignal.
+ */
+public class QuixSignalHistory {
+  private final double[] m_timestamps;
+  private final double[] m_values;
+  private int m_head = 0; // Index of the next sample to be written.
+  private int m_size = 0;
+
+  public QuixSignalHistory(final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("History capacity must be positive: " + capacity);
+    }
+    m_timestamps = new double[capacity];
+    m_values = new double[capacity];
+  }
+
+  /** Adds a sample. Samples that are not newer than the latest sample are dropped. */
+  public synchronized void add(final double timestamp, final double value) {
+    if (m_size > 0 && timestamp <= m_timestamps[physicalIndex(m_size - 1)]) {
+      return;
+    }
+    m_timestamps[m_head] = timestamp;
+    m_values[m_head] = value;
+    m_head = (m_head + 1) % m_timestamps.length;
+    m_size = Math.min(m_size + 1, m_timestamps.length);
+  }
+
+  public synchronized void clear() {
+    m_head = 0;
+    m_size = 0;
+  }
+
+  public int getCapacity() {
+    return m_timestamps.length;
+  }
+
+  public synchronized int size() {
+    return m_size;
+  }
+
+  /** Returns the timestamp of the latest sample, or NaN if there are no samples. */
+  public synchronized double getLatestTimestamp() {
+    return m_size == 0 ? Double.NaN : m_timestamps[physicalIndex(m_size - 1)];
+  }
+
+  /** Returns the latest sample, or NaN if there are no samples. */
+  public synchronized double getLatestValue() {
+    return m_size == 0 ? Double.NaN : m_values[physicalIndex(m_size - 1)];
+  }
+
+  /**
+   * Returns the value linearly interpolated at the given timestamp. Timestamps outside of the
+   * stored range are clamped to the oldest or latest sample. Returns NaN if there are no samples.
+   */
+  public synchronized double getInterpolated(final double timestamp) {
+    if (m_size == 0) {
+      return Double.NaN;
+    }
+    if (timestamp <= m_timestamps[physicalIndex(0)]) {
+      return m_values[physicalIndex(0)];
+    }
+    if (timestamp >= m_timestamps[physicalIndex(m_size - 1)]) {
+      return m_values[physicalIndex(m_size - 1)];
+    }
+
+    // Binary search for the samples bracketing the timestamp.
+    // Invariant: timestamp(lo) < timestamp < timestamp(hi).
+    int lo = 0;
+    int hi = m_size - 1;
+    while (hi - lo > 1) {
+      final int mid = (lo + hi) >>> 1;
+      if (m_timestamps[physicalIndex(mid)] <= timestamp) {
+        lo = mid;
+      } else {
+        hi = mid;
+      }
+    }
+
+    final int loIdx = physicalIndex(lo);
+    final int hiIdx = physicalIndex(hi);
+    final double t =
+        (timestamp - m_timestamps[loIdx]) / (m_timestamps[hiIdx] - m_timestamps[loIdx]);
+    return m_values[loIdx] + t * (m_values[hiIdx] - m_values[loIdx]);
+  }
+
+  /**
+   * Copies the most recent samples, oldest first, into the given arrays. Returns the number of
+   * samples copied, which is limited by the length of the shorter array.
+   */
+  public synchronized int copyTo(final double[] timestamps, final double[] values) {
+    final int n = Math.min(m_size, Math.min(timestamps.length, values.length));
+    final int offset = m_size - n;
+    for (int i = 0; i < n; i++) {
+      final int idx = physicalIndex(offset + i);
+      timestamps[i] = m_timestamps[idx];
+      values[i] = m_values[idx];
+    }
+    return n;
+  }
+
+  // Converts a logical index (0 is the oldest sample) into an index into the backing arrays.
+  private int physicalIndex(final int logicalIndex) {
+    return (m_head - m_size + logicalIndex + m_timestamps.length) % m_timestamps.length;
+  }
+}
@@ -0,0 +1,163 @@
+package frc.quixlib.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Threads;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples QuixStatusSignals on a dedicated background thread at a higher rate than the main robot
+ * loop, similar to the odometry thread in Phoenix's SwerveDrivetrain.
+ *
+ * <p>The thread blocks on BaseStatusSignal.waitForAll() and pushes every new sample into a
+ * preallocated {@link QuixSignalHistory} per signal. Since waitForAll() requires all signals to
+ * be on the same CAN bus, there is one sampler per bus.
+ *
+ * <p>Registering a signal changes its update frequency on the device to the sampler frequency.
+ * Note that this is reset to the device default if the device reconfigures after a reset.
+ */
+public class QuixSignalSampler {
+  public static final double kDefaultFrequencyHz = 250.0;
+  public static final int kDefaultHistorySize = 250; // 1 s at the default frequency
+  private static final double kCANTimeoutS = 0.1; // s
+  private static final int kThreadPriority = 1;
+
+  private static final Map<String, QuixSignalSampler> m_instances = new HashMap<>();
+
+  private final String m_canbusName;
+  private final double m_frequencyHz;
+
+  private final List<QuixStatusSignal<?>> m_signals = new ArrayList<>();
+  private final List<QuixSignalHistory> m_histories = new ArrayList<>();
+  private boolean m_dirty = false;
+
+  // Only accessed from the sampler thread.
+  private QuixStatusSignal<?>[] m_signalArray = new QuixStatusSignal<?>[0];
+  private BaseStatusSignal[] m_baseSignalArray = new BaseStatusSignal[0];
+  private QuixSignalHistory[] m_historyArray = new QuixSignalHistory[0];
+
+  private Thread m_thread = null;
+  private volatile boolean m_running = false;
+  private volatile int m_failedSamples = 0;
+
+  /** Returns the shared sampler for the given CAN bus, running at the default frequency. */
+  public static synchronized QuixSignalSampler getInstance(final String canbusName) {
+    return m_instances.computeIfAbsent(
+        canbusName, bus -> new QuixSignalSampler(bus, kDefaultFrequencyHz));
+  }
+
+  public QuixSignalSampler(final String canbusName, final double frequencyHz) {
+    m_canbusName = canbusName;
+    m_frequencyHz = frequencyHz;
+  }
+
+  public double getFrequencyHz() {
+    return m_frequencyHz;
+  }
+
+  /** Returns the number of waitForAll() calls that did not return fresh data. */
+  public int getFailedSamples() {
+    return m_failedSamples;
+  }
+
+  /** Registers a signal with the default history size. Starts the thread if necessary. */
+  public QuixSignalHistory register(final QuixStatusSignal<?> signal) {
+    return register(signal, kDefaultHistorySize);
+  }
+
+  /** Registers a signal with the given history size. Starts the thread if necessary. */
+  public synchronized QuixSignalHistory register(
+      final QuixStatusSignal<?> signal, final int historySize) {
+    // Use a copy so that the sampler thread never touches the signal refreshed by the main loop.
+    final QuixStatusSignal<?> copy = signal.unregisteredCopy();
+    final StatusCode code = copy.setUpdateFrequency(m_frequencyHz, kCANTimeoutS);
+    if (!code.isOK()) {
+      DriverStation.reportWarning(
+          "QuixSignalSampler " + m_canbusName + ": setUpdateFrequency() failed: " + code.getName(),
+          false);
+    }
+
+    final QuixSignalHistory history = new QuixSignalHistory(historySize);
+    m_signals.add(copy);
+    m_histories.add(history);
+    m_dirty = true;
+
+    if (m_thread == null) {
+      start();
+    }
+    return history;
+  }
+
+  /** Starts the sampler thread. */
+  public synchronized void start() {
+    if (m_thread != null) {
+      return;
+    }
+    m_running = true;
+    m_thread = new Thread(this::run, "QuixSignalSampler " + m_canbusName);
+    m_thread.setDaemon(true);
+    m_thread.start();
+  }
+
+  /** Stops the sampler thread and blocks until it exits. */
+  public void stop() {
+    final Thread thread;
+    synchronized (this) {
+      thread = m_thread;
+      m_running = false;
+      m_thread = null;
+    }
+    if (thread != null) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private synchronized void updateSignalArrays() {
+    if (!m_dirty) {
+      return;
+    }
+    m_signalArray = m_signals.toArray(new QuixStatusSignal<?>[0]);
+    m_baseSignalArray = QuixStatusSignal.toBaseStatusSignals(m_signalArray);
+    m_historyArray = m_histories.toArray(new QuixSignalHistory[0]);
+    m_dirty = false;
+  }
+
+  private void run() {
+    Threads.setCurrentThreadPriority(true, kThreadPriority);
+
+    // Wait up to two periods so a single late frame doesn't count as a failure.
+    final double timeoutS = 2.0 / m_frequencyHz;
+    while (m_running) {
+      updateSignalArrays();
+
+      if (m_baseSignalArray.length == 0) {
+        try {
+          Thread.sleep((long) (1000.0 / m_frequencyHz));
+        } catch (InterruptedException e) {
+          return;
+        }
+        continue;
+      }
+
+      final StatusCode status = BaseStatusSignal.waitForAll(timeoutS, m_baseSignalArray);
+      if (!status.isOK()) {
+        m_failedSamples++;
+        continue;
+      }
+
+      for (int i = 0; i < m_signalArray.length; i++) {
+        m_historyArray[i].add(
+            m_signalArray[i].getTimestamp().getTime(),
+            m_signalArray[i].getDouble());
+      }
+    }
+  }
+}
@@ -4,21 +4,57 @@ import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.Timestamp;
-import java.util.function.Function;
 
-/** A wrapper around Phoenix6's StatusSignal that handles unit conversions. */
+/**
+ * A wrapper around Phoenix6's StatusSignal that handles unit conversions.
+ *
+ * <p>Conversions from native units are a precomputed affine transform (value * scale + offset),
+ * so {@link #getDouble()} never boxes or allocates.
+ *
+ * <p>All signals are registered with {@link QuixStatusSignalRegistry} on construction and are
+ * refreshed together once per loop, so getters should read the cached value instead of calling
+ * {@link #refresh()}.
+ */
 public class QuixStatusSignal<T> {
   private final StatusSignal<T> m_statusSignal;
-  private final Function<Double, Double> m_fromNativeUnits;
+  private final double m_scale;
+  private final double m_offset;
 
-  public QuixStatusSignal(final StatusSignal<T> statusSignal) {
-    this(statusSignal, value -> value);
+  public QuixStatusSignal(final StatusSignal<T> statusSignal, final CANDeviceID canID) {
+    this(statusSignal, 1.0, 0.0, canID);
   }
 
+  /**
+   * Constructs a signal whose unit-converted value is (native value * scale + offset).
+   *
+   * @param statusSignal The Phoenix6 signal to wrap. This is cloned.
+   * @param scale Multiplier from native units.
+   * @param offset Offset applied after scaling.
+   * @param canID The device the signal belongs to. Used to group refreshes by CAN bus.
+   */
   public QuixStatusSignal(
-      final StatusSignal<T> statusSignal, final Function<Double, Double> fromNativeUnits) {
+      final StatusSignal<T> statusSignal,
+      final double scale,
+      final double offset,
+      final CANDeviceID canID) {
+    this(statusSignal, scale, offset);
+    QuixStatusSignalRegistry.register(canID, this);
+  }
+
+  /** Constructs a signal that is not registered for the per-loop refresh. */
+  private QuixStatusSignal(
+      final StatusSignal<T> statusSignal, final double scale, final double offset) {
     m_statusSignal = statusSignal.clone();
-    m_fromNativeUnits = fromNativeUnits;
+    m_scale = scale;
+    m_offset = offset;
+  }
+
+  /**
+   * Returns an independent copy of this signal that is not refreshed by the registry. Used by
+   * background threads so they never race with the main loop on the same StatusSignal object.
+   */
+  QuixStatusSignal<T> unregisteredCopy() {
+    return new QuixStatusSignal<>(m_statusSignal, m_scale, m_offset);
   }
 
   public StatusCode setUpdateFrequency(double frequencyHz, double timeoutSeconds) {
@@ -41,14 +77,32 @@ public class QuixStatusSignal<T> {
     return m_statusSignal.getValue();
   }
 
+  /** Returns the cached value in converted units. Does not allocate. */
+  public double getDouble() {
+    return m_statusSignal.getValueAsDouble() * m_scale + m_offset;
+  }
+
+  /** Returns the cached value in native units. Does not allocate. */
+  public double getRawDouble() {
+    return m_statusSignal.getValueAsDouble();
+  }
+
   public double getUnitConvertedValue() {
-    return m_fromNativeUnits.apply(m_statusSignal.getValueAsDouble());
+    return getDouble();
   }
 
   public Timestamp getTimestamp() {
     return m_statusSignal.getTimestamp();
   }
 
+  BaseStatusSignal getBaseStatusSignal() {
+    return m_statusSignal;
+  }
+
+  public static StatusCode refreshAll(final QuixStatusSignal<?>... quixSignals) {
+    return BaseStatusSignal.refreshAll(toBaseStatusSignals(quixSignals));
+  }
+
   public static BaseStatusSignal[] toBaseStatusSignals(final QuixStatusSignal<?>... quixSignals) {
     final BaseStatusSignal[] signals = new BaseStatusSignal[quixSignals.length];
     for (int i = 0; i < quixSignals.length; i++) {
@@ -59,7 +113,6 @@ public class QuixStatusSignal<T> {
 
   public static double getLatencyCompensatedValue(
       final QuixStatusSignal<?> signal, final QuixStatusSignal<?> signalSlope) {
-    return signal.getUnitConvertedValue()
-        + (signalSlope.getUnitConvertedValue() * signal.getTimestamp().getLatency());
+    return signal.getDouble() + (signalSlope.getDouble() * signal.getTimestamp().getLatency());
   }
 }
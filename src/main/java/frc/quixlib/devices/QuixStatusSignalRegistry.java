@@ -0,0 +1,81 @@
+package frc.quixlib.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.quixlib.telemetry.QuixDataLog;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A global registry of all QuixStatusSignals, grouped by CAN bus.
+ *
+ * <p>Call {@link #refreshAll()} once at the top of every robot loop. This does one
+ * BaseStatusSignal.refreshAll() per CAN bus, so every getter in the loop reads from the same
+ * time-consistent snapshot instead of issuing its own blocking refresh.
+ *
+ * <p>After refreshing, every signal's unit-converted value is written to the {@link QuixDataLog}
+ * on the channel "QuixStatusSignals/[bus]/[device number]/[signal name]".
+ */
+public class QuixStatusSignalRegistry {
+  private static final Map<String, List<BaseStatusSignal>> m_signalsByBus = new LinkedHashMap<>();
+  private static final List<QuixStatusSignal<?>> m_signals = new ArrayList<>();
+  private static final List<Integer> m_channels = new ArrayList<>();
+  private static BaseStatusSignal[][] m_signalArrays = new BaseStatusSignal[0][];
+  private static QuixStatusSignal<?>[] m_logSignals = new QuixStatusSignal<?>[0];
+  private static int[] m_logChannels = new int[0];
+  private static boolean m_dirty = false;
+
+  private QuixStatusSignalRegistry() {}
+
+  /**
+   * Registers a signal to be refreshed with all other signals on the same CAN bus and logged.
+   *
+   * @param canID The device the signal belongs to.
+   */
+  public static synchronized void register(
+      final CANDeviceID canID, final QuixStatusSignal<?> signal) {
+    final BaseStatusSignal baseSignal = signal.getBaseStatusSignal();
+    m_signalsByBus.computeIfAbsent(canID.CANbusName, bus -> new ArrayList<>()).add(baseSignal);
+    m_signals.add(signal);
+    m_channels.add(
+        QuixDataLog.addChannel(
+            "QuixStatusSignals/"
+                + canID.CANbusName
+                + "/"
+                + canID.deviceNumber
+                + "/"
+                + baseSignal.getName()));
+    m_dirty = true;
+  }
+
+  /**
+   * Refreshes all registered signals and logs their values. Should be called once per loop from the
+   * main robot thread.
+   */
+  public static synchronized void refreshAll() {
+    if (m_dirty) {
+      // Rebuild the per-bus arrays only when the set of signals has changed.
+      m_signalArrays = new BaseStatusSignal[m_signalsByBus.size()][];
+      int i = 0;
+      for (final List<BaseStatusSignal> signals : m_signalsByBus.values()) {
+        m_signalArrays[i++] = signals.toArray(new BaseStatusSignal[0]);
+      }
+      m_logSignals = m_signals.toArray(new QuixStatusSignal<?>[0]);
+      m_logChannels = new int[m_channels.size()];
+      for (int j = 0; j < m_logChannels.length; j++) {
+        m_logChannels[j] = m_channels.get(j);
+      }
+      m_dirty = false;
+    }
+    for (final BaseStatusSignal[] signals : m_signalArrays) {
+      BaseStatusSignal.refreshAll(signals);
+    }
+
+    final long nowUs = RobotController.getFPGATime();
+    for (int i = 0; i < m_logSignals.length; i++) {
+      QuixDataLog.log(m_logChannels[i], m_logSignals[i].getDouble(), nowUs);
+    }
+  }
+}
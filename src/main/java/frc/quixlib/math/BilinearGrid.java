@@ -0,0 +1,169 @@
+package frc.quixlib.math;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A table of one or more outputs sampled on a uniform 2-D grid, queried with bilinear
+ * interpolation in O(1).
+ *
+ * <p>Grids are stored in a compact little-endian binary file and memory-mapped by {@link #load},
+ * so a lookup is a few index computations and four reads per output, with no allocation. Inputs
+ * outside the grid are clamped to its edges.
+ *
+ * <p>File layout: int magic, int version, int nx, int ny, int numOutputs, double x0, double dx,
+ * double y0, double dy, followed by nx * ny * numOutputs float32 values ordered by x, then y, then
+ * output.
+ */
+public class BilinearGrid {
+  public static final int kMagic = 0x44524751; // "QGRD" in little-endian
+  public static final int kVersion = 1;
+  private static final int kHeaderBytes = 5 * Integer.BYTES + 4 * Double.BYTES;
+
+  private final FloatBuffer m_values;
+  private final int m_nx;
+  private final int m_ny;
+  private final int m_numOutputs;
+  private final double m_x0;
+  private final double m_dx;
+  private final double m_y0;
+  private final double m_dy;
+
+  private BilinearGrid(final ByteBuffer buffer) {
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(0) != kMagic || buffer.getInt(4) != kVersion) {
+      throw new IllegalArgumentException("BilinearGrid: bad magic or version");
+    }
+    m_nx = buffer.getInt(8);
+    m_ny = buffer.getInt(12);
+    m_numOutputs = buffer.getInt(16);
+    m_x0 = buffer.getDouble(20);
+    m_dx = buffer.getDouble(28);
+    m_y0 = buffer.getDouble(36);
+    m_dy = buffer.getDouble(44);
+    if (m_nx < 2 || m_ny < 2 || m_numOutputs < 1 || !(m_dx > 0.0) || !(m_dy > 0.0)) {
+      throw new IllegalArgumentException("BilinearGrid: bad dimensions");
+    }
+    final long expectedBytes = kHeaderBytes + (long) m_nx * m_ny * m_numOutputs * Float.BYTES;
+    if (buffer.capacity() != expectedBytes) {
+      throw new IllegalArgumentException(
+          "BilinearGrid: expected " + expectedBytes + " bytes but got " + buffer.capacity());
+    }
+    m_values =
+        buffer.position(kHeaderBytes).slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+  }
+
+  /** Memory-maps a grid file. */
+  public static BilinearGrid load(final File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      return new BilinearGrid(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes a grid file.
+   *
+   * @param values Values indexed as [ix][iy][output].
+   */
+  public static void write(
+      final File file,
+      final double x0,
+      final double dx,
+      final double y0,
+      final double dy,
+      final double[][][] values)
+      throws IOException {
+    final int nx = values.length;
+    final int ny = values[0].length;
+    final int numOutputs = values[0][0].length;
+    final ByteBuffer buffer =
+        ByteBuffer.allocate(kHeaderBytes + nx * ny * numOutputs * Float.BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(kMagic).putInt(kVersion).putInt(nx).putInt(ny).putInt(numOutputs);
+    buffer.putDouble(x0).putDouble(dx).putDouble(y0).putDouble(dy);
+    for (int ix = 0; ix < nx; ix++) {
+      for (int iy = 0; iy < ny; iy++) {
+        for (int k = 0; k < numOutputs; k++) {
+          buffer.putFloat((float) values[ix][iy][k]);
+        }
+      }
+    }
+    buffer.flip();
+    try (FileChannel channel =
+        FileChannel.open(
+            file.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  public int getNumOutputs() {
+    return m_numOutputs;
+  }
+
+  public double getMinX() {
+    return m_x0;
+  }
+
+  public double getMaxX() {
+    return m_x0 + (m_nx - 1) * m_dx;
+  }
+
+  public double getMinY() {
+    return m_y0;
+  }
+
+  public double getMaxY() {
+    return m_y0 + (m_ny - 1) * m_dy;
+  }
+
+  /** Returns the given output bilinearly interpolated at (x, y). */
+  public double get(final double x, final double y, final int output) {
+    final double fx = clampIndex((x - m_x0) / m_dx, m_nx);
+    final double fy = clampIndex((y - m_y0) / m_dy, m_ny);
+    final int ix = (int) fx;
+    final int iy = (int) fy;
+    return interpolate(ix, iy, fx - ix, fy - iy, output);
+  }
+
+  /** Bilinearly interpolates every output at (x, y) into {@code out}. */
+  public void get(final double x, final double y, final double[] out) {
+    final double fx = clampIndex((x - m_x0) / m_dx, m_nx);
+    final double fy = clampIndex((y - m_y0) / m_dy, m_ny);
+    final int ix = (int) fx;
+    final int iy = (int) fy;
+    for (int k = 0; k < m_numOutputs; k++) {
+      out[k] = interpolate(ix, iy, fx - ix, fy - iy, k);
+    }
+  }
+
+  private double interpolate(
+      final int ix, final int iy, final double tx, final double ty, final int output) {
+    final int i00 = (ix * m_ny + iy) * m_numOutputs + output;
+    final int i01 = i00 + m_numOutputs;
+    final int i10 = i00 + m_ny * m_numOutputs;
+    final int i11 = i10 + m_numOutputs;
+    final double v0 = m_values.get(i00) + ty * (m_values.get(i01) - m_values.get(i00));
+    final double v1 = m_values.get(i10) + ty * (m_values.get(i11) - m_values.get(i10));
+    return v0 + tx * (v1 - v0);
+  }
+
+  // Clamps a fractional grid index so that its floor is a valid lower cell index.
+  private static double clampIndex(final double index, final int n) {
+    if (!(index > 0.0)) { // Also maps NaN to the first cell.
+      return 0.0;
+    }
+    // Stay strictly inside the last cell so that floor(index) + 1 is in range.
+    return Math.min(index, Math.nextDown((double) (n - 1)));
+  }
+}
@@ -0,0 +1,117 @@
+package frc.quixlib.math;
+
+/**
+ * A lookup table that linearly interpolates one or more outputs between sorted keys.
+ *
+ * <p>Keys and outputs are stored in primitive arrays, so lookups do not box or allocate. A lookup
+ * first checks the interval used by the previous lookup, which is the common case for inputs that
+ * change slowly from loop to loop, and falls back to a binary search otherwise. Keys outside the
+ * table are clamped to the first or last row.
+ *
+ * <p>Because of the cached interval, a table must not be queried from multiple threads at once.
+ */
+public class DoubleLerpTable {
+  private final double[] m_keys;
+  private final double[] m_values; // Row-major, m_numOutputs values per key.
+  private final int m_numOutputs;
+  private int m_lastIndex = 0; // Lower index of the interval used by the last lookup.
+
+  /**
+   * @param rows Rows of {key, output0, output1, ...}. Keys must be strictly increasing and every
+   *     row must have the same number of outputs.
+   */
+  public DoubleLerpTable(final double[][] rows) {
+    if (rows.length == 0 || rows[0].length < 2) {
+      throw new IllegalArgumentException("DoubleLerpTable needs at least one row with an output");
+    }
+    m_numOutputs = rows[0].length - 1;
+    m_keys = new double[rows.length];
+    m_values = new double[rows.length * m_numOutputs];
+    for (int i = 0; i < rows.length; i++) {
+      if (rows[i].length != m_numOutputs + 1) {
+        throw new IllegalArgumentException("DoubleLerpTable row " + i + " has the wrong length");
+      }
+      if (i > 0 && !(rows[i][0] > rows[i - 1][0])) {
+        throw new IllegalArgumentException("DoubleLerpTable keys must be strictly increasing");
+      }
+      m_keys[i] = rows[i][0];
+      System.arraycopy(rows[i], 1, m_values, i * m_numOutputs, m_numOutputs);
+    }
+  }
+
+  public int getNumOutputs() {
+    return m_numOutputs;
+  }
+
+  public int size() {
+    return m_keys.length;
+  }
+
+  /** Returns the given output interpolated at the key. */
+  public double get(final double key, final int output) {
+    if (key <= m_keys[0]) {
+      return m_values[output];
+    }
+    final int last = m_keys.length - 1;
+    if (key >= m_keys[last]) {
+      return m_values[last * m_numOutputs + output];
+    }
+    final int i = findInterval(key);
+    final double t = (key - m_keys[i]) / (m_keys[i + 1] - m_keys[i]);
+    final double lo = m_values[i * m_numOutputs + output];
+    final double hi = m_values[(i + 1) * m_numOutputs + output];
+    return lo + t * (hi - lo);
+  }
+
+  /** Interpolates every output at the key into {@code out}, which must fit getNumOutputs(). */
+  public void get(final double key, final double[] out) {
+    if (key <= m_keys[0]) {
+      System.arraycopy(m_values, 0, out, 0, m_numOutputs);
+      return;
+    }
+    final int last = m_keys.length - 1;
+    if (key >= m_keys[last]) {
+      System.arraycopy(m_values, last * m_numOutputs, out, 0, m_numOutputs);
+      return;
+    }
+    final int i = findInterval(key);
+    final double t = (key - m_keys[i]) / (m_keys[i + 1] - m_keys[i]);
+    final int loRow = i * m_numOutputs;
+    final int hiRow = loRow + m_numOutputs;
+    for (int j = 0; j < m_numOutputs; j++) {
+      final double lo = m_values[loRow + j];
+      out[j] = lo + t * (m_values[hiRow + j] - lo);
+    }
+  }
+
+  // Returns i such that keys[i] <= key < keys[i + 1]. Requires keys[0] < key < keys[last].
+  private int findInterval(final double key) {
+    int i = m_lastIndex;
+    if (m_keys[i] <= key && key < m_keys[i + 1]) {
+      return i;
+    }
+    // Check the neighboring intervals before searching.
+    if (i + 2 < m_keys.length && m_keys[i + 1] <= key && key < m_keys[i + 2]) {
+      m_lastIndex = i + 1;
+      return i + 1;
+    }
+    if (i > 0 && m_keys[i - 1] <= key && key < m_keys[i]) {
+      m_lastIndex = i - 1;
+      return i - 1;
+    }
+
+    // Invariant: keys[lo] <= key < keys[hi].
+    int lo = 0;
+    int hi = m_keys.length - 1;
+    while (hi - lo > 1) {
+      final int mid = (lo + hi) >>> 1;
+      if (m_keys[mid] <= key) {
+        lo = mid;
+      } else {
+        hi = mid;
+      }
+    }
+    m_lastIndex = lo;
+    return lo;
+  }
+}
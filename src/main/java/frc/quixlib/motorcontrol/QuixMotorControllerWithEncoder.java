@@ -86,6 +86,9 @@ interface QuixMotorControllerWithEncoder {
 
   // ==================== Simulation ====================
 
+  /** Returns the simulated voltage applied to the motor, in the mechanism's direction. */
+  public double getSimMotorVoltage();
+
   /** Sets the simulated angular position and velocity of the sensor in mechanism units. */
   public void setSimSensorPositionAndVelocity(double pos, double vel, double dt, MechanismRatio mr);
 
@@ -17,20 +17,23 @@ import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import com.ctre.phoenix6.sim.TalonFXSimState;
-import edu.wpi.first.networktables.DoublePublisher;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.units.measure.ImmutableAngle;
-import edu.wpi.first.units.measure.ImmutableAngularVelocity;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.quixlib.devices.CANDeviceID;
 import frc.quixlib.devices.QuixStatusSignal;
 import frc.quixlib.phoenix.PhoenixUtil;
+import frc.quixlib.telemetry.QuixDataLog;
+import frc.quixlib.telemetry.ThrottledDoublePublisher;
 import frc.robot.Robot;
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
 public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseable {
   private static final double kCANTimeoutS = 0.1; // s
+  private static final double kFastTelemetryPeriodS = 0.02; // 50 Hz
+  private static final double kSlowTelemetryPeriodS = 0.1; // 10 Hz
+  private static final double kTelemetryDeadband = 1e-4; // MechanismRatio units
+  private static final double kCurrentTelemetryDeadband = 0.1; // A
   private final CANDeviceID m_canID;
   private final TalonFX m_controller;
   private final TalonFXSimState m_simState;
@@ -51,15 +54,19 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
   private final QuixStatusSignal m_sensorVelocitySignal;
   private final QuixStatusSignal m_closedLoopReferenceSignal;
   private final QuixStatusSignal m_closedLoopReferenceSlopeSignal;
-
-  private final DoublePublisher m_percentOutputPublisher;
-  private final DoublePublisher m_supplyCurrentPublisher;
-  private final DoublePublisher m_statorCurrentPublisher;
-  private final DoublePublisher m_closedLoopReferencePublisher;
-  private final DoublePublisher m_closedLoopReferenceSlopePublisher;
-  private final DoublePublisher m_rawRotorPositionPublisher;
-  private final DoublePublisher m_sensorPositionPublisher;
-  private final DoublePublisher m_sensorVelocityPublisher;
+  private final QuixStatusSignal m_supplyCurrentSignal;
+  private final QuixStatusSignal m_statorCurrentSignal;
+
+  private final ThrottledDoublePublisher m_percentOutputPublisher;
+  private final ThrottledDoublePublisher m_supplyCurrentPublisher;
+  private final ThrottledDoublePublisher m_statorCurrentPublisher;
+  private final ThrottledDoublePublisher m_closedLoopReferencePublisher;
+  private final ThrottledDoublePublisher m_closedLoopReferenceSlopePublisher;
+  private final ThrottledDoublePublisher m_rawRotorPositionPublisher;
+  private final ThrottledDoublePublisher m_sensorPositionPublisher;
+  private final ThrottledDoublePublisher m_sensorVelocityPublisher;
+  // QuixStatusSignalRegistry logs every signal's converted value, but not the raw rotor position.
+  private final int m_rawRotorPositionDataLogChannel;
 
   public static class QuixTalonFXConfiguration {
     private NeutralModeValue NEUTRAL_MODE = NeutralModeValue.Coast;
@@ -146,8 +153,8 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
     }
 
     public TalonFXConfiguration toTalonFXConfiguration(
-        final Function<Double, Double> toNativeSensorPosition,
-        final Function<Double, Double> toNativeSensorVelocity) {
+        final DoubleUnaryOperator toNativeSensorPosition,
+        final DoubleUnaryOperator toNativeSensorVelocity) {
       final TalonFXConfiguration config = new TalonFXConfiguration();
       config.MotorOutput.NeutralMode = NEUTRAL_MODE;
       config.MotorOutput.Inverted =
@@ -170,10 +177,10 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
 
       config.SoftwareLimitSwitch.ForwardSoftLimitEnable = FWD_SOFT_LIMIT_ENABLED;
       config.SoftwareLimitSwitch.ForwardSoftLimitThreshold =
-          toNativeSensorPosition.apply(FWD_SOFT_LIMIT);
+          toNativeSensorPosition.applyAsDouble(FWD_SOFT_LIMIT);
       config.SoftwareLimitSwitch.ReverseSoftLimitEnable = REV_SOFT_LIMIT_ENABLED;
       config.SoftwareLimitSwitch.ReverseSoftLimitThreshold =
-          toNativeSensorPosition.apply(REV_SOFT_LIMIT);
+          toNativeSensorPosition.applyAsDouble(REV_SOFT_LIMIT);
 
       config.Voltage.SupplyVoltageTimeConstant = 0.0;
       config.Voltage.PeakForwardVoltage = 16.0;
@@ -184,10 +191,10 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
       config.Slot2 = slot2Config.fillCTRE(new Slot2Configs());
 
       config.MotionMagic.MotionMagicCruiseVelocity =
-          toNativeSensorVelocity.apply(motionMagicCruiseVelocity);
+          toNativeSensorVelocity.applyAsDouble(motionMagicCruiseVelocity);
       config.MotionMagic.MotionMagicAcceleration =
-          toNativeSensorVelocity.apply(motionMagicAcceleration);
-      config.MotionMagic.MotionMagicJerk = toNativeSensorVelocity.apply(motionMagicJerk);
+          toNativeSensorVelocity.applyAsDouble(motionMagicAcceleration);
+      config.MotionMagic.MotionMagicJerk = toNativeSensorVelocity.applyAsDouble(motionMagicJerk);
 
       return config;
     }
@@ -216,55 +223,82 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
     m_ratio = ratio;
     m_config = config;
 
-    m_percentOutputSignal = new QuixStatusSignal(m_controller.getDutyCycle());
+    m_percentOutputSignal = new QuixStatusSignal(m_controller.getDutyCycle(), m_canID);
+    // Precompute native to MechanismRatio unit conversions.
+    final double positionScale = 1.0 / toNativeSensorPosition(1.0, m_ratio, 0.0);
+    final double velocityScale = 1.0 / toNativeSensorVelocity(1.0, m_ratio);
     m_sensorPositionSignal =
-        new QuixStatusSignal<>(m_controller.getRotorPosition(), this::fromNativeSensorPosition);
+        new QuixStatusSignal<>(
+            m_controller.getRotorPosition(),
+            positionScale,
+            m_config.bootPositionOffset,
+            m_canID);
     m_sensorVelocitySignal =
-        new QuixStatusSignal<>(m_controller.getRotorVelocity(), this::fromNativeSensorVelocity);
+        new QuixStatusSignal<>(m_controller.getRotorVelocity(), velocityScale, 0.0, m_canID);
     m_closedLoopReferenceSignal =
-        new QuixStatusSignal<>(m_controller.getClosedLoopReference(), this::fromNativeSensorPosition);
+        new QuixStatusSignal<>(
+            m_controller.getClosedLoopReference(),
+            positionScale,
+            m_config.bootPositionOffset,
+            m_canID);
     m_closedLoopReferenceSlopeSignal =
         new QuixStatusSignal<>(
-            m_controller.getClosedLoopReferenceSlope(), this::fromNativeSensorVelocity);
+            m_controller.getClosedLoopReferenceSlope(), velocityScale, 0.0, m_canID);
+    m_supplyCurrentSignal = new QuixStatusSignal<>(m_controller.getSupplyCurrent(), m_canID);
+    m_statorCurrentSignal = new QuixStatusSignal<>(m_controller.getStatorCurrent(), m_canID);
 
     // Clear reset flag.
     m_controller.hasResetOccurred();
 
     SmartDashboard.putBoolean("TalonFX Configuration " + m_canID.toString(), setConfiguration());
 
+    // Populate the cached signals so getters are valid before the first registry refresh.
+    QuixStatusSignal.refreshAll(
+        m_percentOutputSignal,
+        m_sensorPositionSignal,
+        m_sensorVelocitySignal,
+        m_closedLoopReferenceSignal,
+        m_closedLoopReferenceSlopeSignal,
+        m_supplyCurrentSignal,
+        m_statorCurrentSignal);
+
     // Set up logging.
     m_percentOutputPublisher =
-        NetworkTableInstance.getDefault()
-            .getDoubleTopic("TalonFX " + m_canID + ": Percent Output")
-            .publish();
+        new ThrottledDoublePublisher(
+            "TalonFX " + m_canID + ": Percent Output", kFastTelemetryPeriodS, kTelemetryDeadband);
     m_supplyCurrentPublisher =
-        NetworkTableInstance.getDefault()
-            .getDoubleTopic("TalonFX " + m_canID + ": Supply Current")
-            .publish();
+        new ThrottledDoublePublisher(
+            "TalonFX " + m_canID + ": Supply Current",
+            kSlowTelemetryPeriodS,
+            kCurrentTelemetryDeadband);
     m_statorCurrentPublisher =
-        NetworkTableInstance.getDefault()
-            .getDoubleTopic("TalonFX " + m_canID + ": Stator Current")
-            .publish();
+        new ThrottledDoublePublisher(
+            "TalonFX " + m_canID + ": Stator Current",
+            kSlowTelemetryPeriodS,
+            kCurrentTelemetryDeadband);
     m_closedLoopReferencePublisher =
-        NetworkTableInstance.getDefault()
-            .getDoubleTopic("TalonFX " + m_canID + ": Closed Loop Reference")
-            .publish();
+        new ThrottledDoublePublisher(
+            "TalonFX " + m_canID + ": Closed Loop Reference",
+            kFastTelemetryPeriodS,
+            kTelemetryDeadband);
     m_closedLoopReferenceSlopePublisher =
-        NetworkTableInstance.getDefault()
-            .getDoubleTopic("TalonFX " + m_canID + ": Closed Loop Reference Slope")
-            .publish();
+        new ThrottledDoublePublisher(
+            "TalonFX " + m_canID + ": Closed Loop Reference Slope",
+            kFastTelemetryPeriodS,
+            kTelemetryDeadband);
     m_rawRotorPositionPublisher =
-        NetworkTableInstance.getDefault()
-            .getDoubleTopic("TalonFX " + m_canID + ": Raw Rotor Position")
-            .publish();
+        new ThrottledDoublePublisher(
+            "TalonFX " + m_canID + ": Raw Rotor Position",
+            kFastTelemetryPeriodS,
+            kTelemetryDeadband);
     m_sensorPositionPublisher =
-        NetworkTableInstance.getDefault()
-            .getDoubleTopic("TalonFX " + m_canID + ": Sensor Position")
-            .publish();
+        new ThrottledDoublePublisher(
+            "TalonFX " + m_canID + ": Sensor Position", kFastTelemetryPeriodS, kTelemetryDeadband);
     m_sensorVelocityPublisher =
-        NetworkTableInstance.getDefault()
-            .getDoubleTopic("TalonFX " + m_canID + ": Sensor Velocity")
-            .publish();
+        new ThrottledDoublePublisher(
+            "TalonFX " + m_canID + ": Sensor Velocity", kFastTelemetryPeriodS, kTelemetryDeadband);
+    m_rawRotorPositionDataLogChannel =
+        QuixDataLog.addChannel("TalonFX " + m_canID + "/Raw Rotor Position");
   }
 
   public boolean setConfiguration() {
@@ -309,6 +343,16 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
             () -> m_closedLoopReferenceSlopeSignal.setUpdateFrequency(100.0, kCANTimeoutS),
             () -> m_closedLoopReferenceSlopeSignal.getAppliedUpdateFrequency() == 100.0,
             "TalonFX " + m_canID + ": m_closedLoopReferenceSlopeSignal.setUpdateFrequency()");
+    allSuccess &=
+        PhoenixUtil.retryUntilSuccess(
+            () -> m_supplyCurrentSignal.setUpdateFrequency(10.0, kCANTimeoutS),
+            () -> m_supplyCurrentSignal.getAppliedUpdateFrequency() == 10.0,
+            "TalonFX " + m_canID + ": m_supplyCurrentSignal.setUpdateFrequency()");
+    allSuccess &=
+        PhoenixUtil.retryUntilSuccess(
+            () -> m_statorCurrentSignal.setUpdateFrequency(10.0, kCANTimeoutS),
+            () -> m_statorCurrentSignal.getAppliedUpdateFrequency() == 10.0,
+            "TalonFX " + m_canID + ": m_statorCurrentSignal.setUpdateFrequency()");
 
     // Disable all signals that have not been explicitly defined.
     allSuccess &=
@@ -364,15 +408,32 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
     return m_controller.getDeviceID();
   }
 
+  /**
+   * Publishes the motor state from the cached signal snapshot. Each value is only published when it
+   * changes, and at most at its own rate. The raw rotor position is also written to the QuixDataLog;
+   * QuixStatusSignalRegistry already logs the other values.
+   */
   public void logMotorState() {
-    m_percentOutputPublisher.set(getPercentOutput());
-    m_supplyCurrentPublisher.set(getSupplyCurrent());
-    m_statorCurrentPublisher.set(getStatorCurrent());
-    m_closedLoopReferencePublisher.set(getClosedLoopReference());
-    m_closedLoopReferenceSlopePublisher.set(getClosedLoopReferenceSlope());
-    m_rawRotorPositionPublisher.set(m_controller.getRotorPosition().getValueAsDouble());
-    m_sensorPositionPublisher.set(getSensorPosition());
-    m_sensorVelocityPublisher.set(getSensorVelocity());
+    final long nowUs = RobotController.getFPGATime();
+    final double percentOutput = getPercentOutput();
+    final double supplyCurrent = getSupplyCurrent();
+    final double statorCurrent = getStatorCurrent();
+    final double closedLoopReference = getClosedLoopReference();
+    final double closedLoopReferenceSlope = getClosedLoopReferenceSlope();
+    final double rawRotorPosition = m_sensorPositionSignal.getRawDouble();
+    final double sensorPosition = getSensorPosition();
+    final double sensorVelocity = getSensorVelocity();
+
+    m_percentOutputPublisher.set(percentOutput, nowUs);
+    m_supplyCurrentPublisher.set(supplyCurrent, nowUs);
+    m_statorCurrentPublisher.set(statorCurrent, nowUs);
+    m_closedLoopReferencePublisher.set(closedLoopReference, nowUs);
+    m_closedLoopReferenceSlopePublisher.set(closedLoopReferenceSlope, nowUs);
+    m_rawRotorPositionPublisher.set(rawRotorPosition, nowUs);
+    m_sensorPositionPublisher.set(sensorPosition, nowUs);
+    m_sensorVelocityPublisher.set(sensorVelocity, nowUs);
+
+    QuixDataLog.log(m_rawRotorPositionDataLogChannel, rawRotorPosition, nowUs);
   }
 
   public void setBrakeMode(final boolean on) {
@@ -420,8 +481,21 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
 
   public void setPositionSetpoint(
       final int slot, final double setpoint, final double feedforwardVolts) {
+    setPositionSetpoint(slot, setpoint, 0.0, feedforwardVolts);
+  }
+
+  /**
+   * Position setpoint with the setpoint's velocity, so that the slot's kV applies when tracking a
+   * moving reference.
+   */
+  public void setPositionSetpoint(
+      final int slot,
+      final double setpoint,
+      final double velocity,
+      final double feedforwardVolts) {
     m_positionControl.Slot = slot;
     m_positionControl.Position = toNativeSensorPosition(setpoint);
+    m_positionControl.Velocity = toNativeSensorVelocity(velocity);
     m_positionControl.FeedForward = feedforwardVolts;
     m_controller.setControl(m_positionControl);
   }
@@ -476,8 +550,7 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
   }
 
   public double getPercentOutput() {
-    m_percentOutputSignal.refresh();
-    return (double) m_percentOutputSignal.getRawValue();
+    return m_percentOutputSignal.getDouble();
   }
 
   public double getPhysicalPercentOutput() {
@@ -485,21 +558,19 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
   }
 
   public double getSupplyCurrent() {
-    return m_controller.getSupplyCurrent().getValueAsDouble();
+    return m_supplyCurrentSignal.getDouble();
   }
 
   public double getStatorCurrent() {
-    return m_controller.getStatorCurrent().getValueAsDouble();
+    return m_statorCurrentSignal.getDouble();
   }
 
   public double getClosedLoopReference() {
-    m_closedLoopReferenceSignal.refresh();
-    return (double) m_closedLoopReferenceSignal.getRawValue();
+    return m_closedLoopReferenceSignal.getDouble();
   }
 
   public double getClosedLoopReferenceSlope() {
-    m_closedLoopReferenceSlopeSignal.refresh();
-    return (double) m_closedLoopReferenceSlopeSignal.getRawValue();
+    return m_closedLoopReferenceSlopeSignal.getDouble();
   }
 
   public boolean getInverted() {
@@ -517,13 +588,11 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
   }
 
   public double getSensorPosition() {
-    m_sensorPositionSignal.refresh();
-    return ((ImmutableAngle) m_sensorPositionSignal.getRawValue()).baseUnitMagnitude();
+    return m_sensorPositionSignal.getDouble();
   }
 
   public double getSensorVelocity() {
-    m_sensorVelocitySignal.refresh();
-    return ((ImmutableAngularVelocity) m_sensorVelocitySignal.getRawValue()).baseUnitMagnitude();
+    return m_sensorVelocitySignal.getDouble();
   }
 
   public MechanismRatio getMechanismRatio() {
@@ -541,7 +610,12 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
   }
 
   public double fromNativeSensorPosition(final double pos) {
-    return (pos / toNativeSensorPosition(1.0, m_ratio, 0.0)) + m_config.bootPositionOffset;
+    return fromNativeSensorPosition(pos, m_ratio, m_config.bootPositionOffset);
+  }
+
+  public static double fromNativeSensorPosition(
+      final double pos, final MechanismRatio mr, final double bootPositionOffset) {
+    return (pos / toNativeSensorPosition(1.0, mr, 0.0)) + bootPositionOffset;
   }
 
   public double toNativeSensorVelocity(final double vel) {
@@ -557,6 +631,12 @@ public class QuixTalonFX implements QuixMotorControllerWithEncoder, AutoCloseabl
     return vel / toNativeSensorVelocity(1.0);
   }
 
+  public double getSimMotorVoltage() {
+    // Simulated hardware is never inverted, so flip signs accordingly.
+    final double sign = getInverted() ? -1.0 : 1.0;
+    return sign * m_simState.getMotorVoltage();
+  }
+
   public void setSimSensorPositionAndVelocity(
       final double pos, final double vel, final double dt, final MechanismRatio mr) {
     // Convert position into rotations.
@@ -0,0 +1,314 @@
+package frc.quixlib.planning;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
+import frc.quixlib.math.MathUtils;
+
+/**
+ * Plans a coordinated move of two joints (e.g. an elevator and an arm) so that both arrive at their
+ * goals at the same time, while staying out of rectangular keep-out zones in joint space.
+ *
+ * <p>Each joint gets a rest-to-rest {@link QuixSCurveProfile} under its own constraints. The joint
+ * with the shorter profile is slowed down by time-scaling its profile to the duration of the
+ * longer one, so the move takes the minimum time allowed by the slower joint and neither joint
+ * violates its constraints.
+ *
+ * <p>If the direct move passes through a keep-out zone, the planner tries moving through a single
+ * intermediate waypoint, stopping there. Candidate waypoints are moving either joint first, and
+ * the corners of each keep-out zone, clamped to the joint limits. The fastest candidate that
+ * clears every zone is used. Moves are checked against the zones by sampling, so zones should
+ * include some margin. A zone that already contains the start of a move is ignored for that move,
+ * so the joints can leave it.
+ *
+ * <p>Planning does not allocate, but it samples the candidate moves, so it should be done when a
+ * move is commanded rather than every loop.
+ */
+public class QuixCoordinatedProfile {
+  private static final int kCollisionSamples = 50;
+
+  /** A rectangle in joint space that the two joints must not enter at the same time. */
+  public static class KeepOutZone {
+    public final double minA;
+    public final double maxA;
+    public final double minB;
+    public final double maxB;
+
+    /**
+     * @param minA Lower bound of the first joint's position.
+     * @param maxA Upper bound of the first joint's position.
+     * @param minB Lower bound of the second joint's position.
+     * @param maxB Upper bound of the second joint's position.
+     */
+    public KeepOutZone(
+        final double minA, final double maxA, final double minB, final double maxB) {
+      this.minA = minA;
+      this.maxA = maxA;
+      this.minB = minB;
+      this.maxB = maxB;
+    }
+
+    /** Returns true if the positions are strictly inside the zone. */
+    public boolean contains(final double a, final double b) {
+      return a > minA && a < maxA && b > minB && b < maxB;
+    }
+  }
+
+  /** A synchronized rest-to-rest move of both joints. */
+  private static class Leg {
+    private final QuixSCurveProfile m_profileA;
+    private final QuixSCurveProfile m_profileB;
+    // Rate at which each joint's own profile is played back so that both take m_duration.
+    private double m_scaleA;
+    private double m_scaleB;
+    private double m_duration;
+
+    private Leg(
+        final QuixSCurveProfile.Constraints constraintsA,
+        final QuixSCurveProfile.Constraints constraintsB) {
+      m_profileA = new QuixSCurveProfile(constraintsA, new State(), new State());
+      m_profileB = new QuixSCurveProfile(constraintsB, new State(), new State());
+    }
+
+    private void plan(
+        final QuixSCurveProfile.Constraints constraintsA,
+        final QuixSCurveProfile.Constraints constraintsB,
+        final double startA,
+        final double startB,
+        final double goalA,
+        final double goalB) {
+      m_profileA.reset(constraintsA, goalA, 0.0, startA, 0.0);
+      m_profileB.reset(constraintsB, goalB, 0.0, startB, 0.0);
+      final double timeA = m_profileA.totalTime();
+      final double timeB = m_profileB.totalTime();
+      m_duration = Math.max(timeA, timeB);
+      m_scaleA = m_duration > 0.0 ? timeA / m_duration : 1.0;
+      m_scaleB = m_duration > 0.0 ? timeB / m_duration : 1.0;
+    }
+
+    private void sample(final double t, final State outA, final State outB) {
+      m_profileA.calculateInto(t * m_scaleA, outA);
+      outA.velocity *= m_scaleA;
+      m_profileB.calculateInto(t * m_scaleB, outB);
+      outB.velocity *= m_scaleB;
+    }
+
+    private void sampleInto(
+        final double t0,
+        final double dt,
+        final int n,
+        final double[] posA,
+        final double[] velA,
+        final double[] posB,
+        final double[] velB,
+        final int offset) {
+      m_profileA.sampleInto(t0 * m_scaleA, dt * m_scaleA, n, posA, velA, offset);
+      m_profileB.sampleInto(t0 * m_scaleB, dt * m_scaleB, n, posB, velB, offset);
+      for (int i = offset; i < offset + n; i++) {
+        velA[i] *= m_scaleA;
+        velB[i] *= m_scaleB;
+      }
+    }
+  }
+
+  private final QuixSCurveProfile.Constraints m_constraintsA;
+  private final double m_minA;
+  private final double m_maxA;
+  private final QuixSCurveProfile.Constraints m_constraintsB;
+  private final double m_minB;
+  private final double m_maxB;
+  private final KeepOutZone[] m_zones;
+
+  // The planned move, and scratch legs for evaluating candidates. Swapped when a candidate wins.
+  private Leg[] m_legs;
+  private Leg[] m_candidate;
+  private int m_numLegs = 1;
+  private double m_totalTime = 0.0;
+
+  // Scratch samples for collision checks.
+  private final double[] m_samplePosA = new double[kCollisionSamples + 1];
+  private final double[] m_sampleVelA = new double[kCollisionSamples + 1];
+  private final double[] m_samplePosB = new double[kCollisionSamples + 1];
+  private final double[] m_sampleVelB = new double[kCollisionSamples + 1];
+
+  /**
+   * @param constraintsA Constraints on the first joint.
+   * @param minA Lower limit of the first joint's position.
+   * @param maxA Upper limit of the first joint's position.
+   * @param constraintsB Constraints on the second joint.
+   * @param minB Lower limit of the second joint's position.
+   * @param maxB Upper limit of the second joint's position.
+   * @param zones Keep-out zones in (first joint, second joint) position space.
+   */
+  public QuixCoordinatedProfile(
+      final QuixSCurveProfile.Constraints constraintsA,
+      final double minA,
+      final double maxA,
+      final QuixSCurveProfile.Constraints constraintsB,
+      final double minB,
+      final double maxB,
+      final KeepOutZone... zones) {
+    m_constraintsA = constraintsA;
+    m_minA = minA;
+    m_maxA = maxA;
+    m_constraintsB = constraintsB;
+    m_minB = minB;
+    m_maxB = maxB;
+    m_zones = zones.clone();
+    m_legs =
+        new Leg[] {new Leg(constraintsA, constraintsB), new Leg(constraintsA, constraintsB)};
+    m_candidate =
+        new Leg[] {new Leg(constraintsA, constraintsB), new Leg(constraintsA, constraintsB)};
+  }
+
+  /**
+   * Plans a move from rest at the start positions to rest at the goal positions.
+   *
+   * @return False if no collision-free move was found, in which case the profile holds the start
+   *     positions.
+   */
+  public boolean plan(
+      final double startA, final double startB, final double goalA, final double goalB) {
+    m_numLegs = 0;
+    m_totalTime = Double.POSITIVE_INFINITY;
+
+    // Direct move.
+    m_candidate[0].plan(m_constraintsA, m_constraintsB, startA, startB, goalA, goalB);
+    if (isClear(m_candidate[0])) {
+      accept(1, m_candidate[0].m_duration);
+    }
+
+    // Moves through a waypoint.
+    tryWaypoint(startA, startB, goalA, goalB, goalA, startB);
+    tryWaypoint(startA, startB, goalA, goalB, startA, goalB);
+    for (final KeepOutZone zone : m_zones) {
+      tryWaypoint(startA, startB, goalA, goalB, zone.minA, zone.minB);
+      tryWaypoint(startA, startB, goalA, goalB, zone.minA, zone.maxB);
+      tryWaypoint(startA, startB, goalA, goalB, zone.maxA, zone.minB);
+      tryWaypoint(startA, startB, goalA, goalB, zone.maxA, zone.maxB);
+    }
+
+    if (m_numLegs == 0) {
+      m_legs[0].plan(m_constraintsA, m_constraintsB, startA, startB, startA, startB);
+      m_numLegs = 1;
+      m_totalTime = 0.0;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Calculates the position and velocity of both joints at a time t since the start of the move.
+   */
+  public void calculateInto(double t, final State outA, final State outB) {
+    for (int i = 0; i < m_numLegs - 1; i++) {
+      if (t < m_legs[i].m_duration) {
+        m_legs[i].sample(t, outA, outB);
+        return;
+      }
+      t -= m_legs[i].m_duration;
+    }
+    m_legs[m_numLegs - 1].sample(t, outA, outB);
+  }
+
+  /**
+   * Samples both joints at n evenly spaced times t0, t0 + dt, ... since the start of the move into
+   * primitive arrays, without allocating.
+   *
+   * @param t0 The time of the first sample since the start of the move.
+   * @param dt The time between samples. Must not be negative.
+   * @param n The number of samples.
+   */
+  public void sampleInto(
+      final double t0,
+      final double dt,
+      final int n,
+      final double[] posA,
+      final double[] velA,
+      final double[] posB,
+      final double[] velB) {
+    int i = 0;
+    double legStart = 0.0;
+    for (int k = 0; k < m_numLegs && i < n; k++) {
+      final Leg leg = m_legs[k];
+      int end = n;
+      if (k < m_numLegs - 1) {
+        end = i;
+        while (end < n && t0 + end * dt - legStart < leg.m_duration) {
+          end++;
+        }
+      }
+      leg.sampleInto(t0 + i * dt - legStart, dt, end - i, posA, velA, posB, velB, i);
+      i = end;
+      legStart += leg.m_duration;
+    }
+  }
+
+  /** Returns the total time of the planned move. */
+  public double totalTime() {
+    return m_totalTime;
+  }
+
+  /** Returns true if the planned move is complete at a time t since its start. */
+  public boolean isFinished(final double t) {
+    return t >= m_totalTime;
+  }
+
+  /** Returns true if the positions are inside any keep-out zone. */
+  public boolean isInKeepOut(final double a, final double b) {
+    for (final KeepOutZone zone : m_zones) {
+      if (zone.contains(a, b)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void tryWaypoint(
+      final double startA,
+      final double startB,
+      final double goalA,
+      final double goalB,
+      double waypointA,
+      double waypointB) {
+    waypointA = MathUtils.clamp(waypointA, m_minA, m_maxA);
+    waypointB = MathUtils.clamp(waypointB, m_minB, m_maxB);
+    m_candidate[0].plan(m_constraintsA, m_constraintsB, startA, startB, waypointA, waypointB);
+    m_candidate[1].plan(m_constraintsA, m_constraintsB, waypointA, waypointB, goalA, goalB);
+    final double time = m_candidate[0].m_duration + m_candidate[1].m_duration;
+    if (time < m_totalTime && isClear(m_candidate[0]) && isClear(m_candidate[1])) {
+      accept(2, time);
+    }
+  }
+
+  private void accept(final int numLegs, final double totalTime) {
+    final Leg[] legs = m_legs;
+    m_legs = m_candidate;
+    m_candidate = legs;
+    m_numLegs = numLegs;
+    m_totalTime = totalTime;
+  }
+
+  // Zones that contain the start of the leg are ignored, so that a joint can move out of a zone.
+  private boolean isClear(final Leg leg) {
+    if (m_zones.length == 0) {
+      return true;
+    }
+    leg.sampleInto(
+        0.0,
+        leg.m_duration / kCollisionSamples,
+        kCollisionSamples + 1,
+        m_samplePosA,
+        m_sampleVelA,
+        m_samplePosB,
+        m_sampleVelB,
+        0);
+    for (int i = 1; i <= kCollisionSamples; i++) {
+      for (final KeepOutZone zone : m_zones) {
+        if (zone.contains(m_samplePosA[i], m_samplePosB[i])
+            && !zone.contains(m_samplePosA[0], m_samplePosB[0])) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
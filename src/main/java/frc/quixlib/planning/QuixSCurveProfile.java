@@ -0,0 +1,420 @@
+package frc.quixlib.planning;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
+
+/**
+ * A jerk-limited (S-curve) velocity profile.
+ *
+ * <p>Has the same API as {@link QuixTrapezoidProfile}, but acceleration ramps at a bounded jerk
+ * instead of stepping, so the reference does not excite mechanism compliance and can use a higher
+ * peak acceleration.
+ *
+ * <p>The profile consists of a velocity change from the initial velocity to a peak velocity, an
+ * optional cruise at that velocity, and a velocity change from the peak velocity to the goal
+ * velocity. Each velocity change ramps acceleration up at max jerk, optionally holds max
+ * acceleration, and ramps it back down. Non-zero initial and goal velocities are handled in closed
+ * form. The peak velocity is solved in closed form when both velocity changes reach max
+ * acceleration, and by bisection otherwise. When the goal cannot be reached without overshooting
+ * (e.g. the initial velocity is too high to stop in time), the peak is a minimum instead and the
+ * profile moves past the goal and comes back.
+ *
+ * <p>Initial and goal velocities are clamped to the max velocity. Acceleration at both ends of the
+ * profile is zero. A max jerk of 0 disables the jerk limit, as with Motion Magic, which makes this
+ * a trapezoid profile.
+ */
+public class QuixSCurveProfile {
+  private static final int kMaxIterations = 64;
+  private static final double kVelocityTolerance = 1e-9;
+
+  /** Profile constraints. */
+  public static class Constraints {
+    public final double maxVelocity;
+    public final double maxAcceleration;
+    public final double maxJerk;
+
+    /**
+     * @param maxVelocity Maximum velocity.
+     * @param maxAcceleration Maximum acceleration.
+     * @param maxJerk Maximum jerk, or 0 for no jerk limit.
+     */
+    public Constraints(
+        final double maxVelocity, final double maxAcceleration, final double maxJerk) {
+      this.maxVelocity = maxVelocity;
+      this.maxAcceleration = maxAcceleration;
+      this.maxJerk = maxJerk;
+    }
+  }
+
+  /** A jerk-limited change in velocity that starts and ends at zero acceleration. */
+  private static class VelocityChange {
+    private double m_startVelocity;
+    private double m_endVelocity;
+    private double m_jerk; // Signed
+    private double m_accel; // Signed peak acceleration
+    private double m_jerkTime; // Duration of each of the two jerk segments
+    private double m_constantAccelTime;
+    private double m_duration;
+    private double m_distance;
+
+    private void reset(
+        final double startVelocity,
+        final double endVelocity,
+        final double maxAcceleration,
+        final double maxJerk) {
+      m_startVelocity = startVelocity;
+      m_endVelocity = endVelocity;
+      final double sign = endVelocity >= startVelocity ? 1.0 : -1.0;
+      m_jerk = sign * maxJerk;
+      final double deltaV = Math.abs(endVelocity - startVelocity);
+      final double rampTime = jerkRampTime(maxAcceleration, maxJerk);
+      if (deltaV < maxAcceleration * rampTime) {
+        // Max acceleration is never reached.
+        m_jerkTime = Math.sqrt(deltaV / maxJerk);
+        m_constantAccelTime = 0.0;
+        m_accel = m_jerk * m_jerkTime;
+      } else {
+        m_jerkTime = rampTime;
+        m_constantAccelTime = deltaV / maxAcceleration - m_jerkTime;
+        m_accel = sign * maxAcceleration;
+      }
+      m_duration = 2.0 * m_jerkTime + m_constantAccelTime;
+      // The velocity curve is point-symmetric about its midpoint.
+      m_distance = 0.5 * (startVelocity + endVelocity) * m_duration;
+    }
+
+    private void sample(final double t, final double startPosition, final State out) {
+      if (t < m_jerkTime) {
+        out.velocity = m_startVelocity + 0.5 * m_jerk * t * t;
+        out.position = startPosition + (m_startVelocity + m_jerk * t * t / 6.0) * t;
+      } else if (t < m_jerkTime + m_constantAccelTime) {
+        final double velocity = m_startVelocity + 0.5 * m_accel * m_jerkTime;
+        final double position = (m_startVelocity + m_accel * m_jerkTime / 6.0) * m_jerkTime;
+        final double dt = t - m_jerkTime;
+        out.velocity = velocity + m_accel * dt;
+        out.position = startPosition + position + (velocity + 0.5 * m_accel * dt) * dt;
+      } else {
+        // Integrate backwards from the end.
+        final double timeLeft = Math.max(m_duration - t, 0.0);
+        out.velocity = m_endVelocity - 0.5 * m_jerk * timeLeft * timeLeft;
+        out.position =
+            startPosition
+                + m_distance
+                - (m_endVelocity - m_jerk * timeLeft * timeLeft / 6.0) * timeLeft;
+      }
+    }
+
+    // Batch version of sample() for samples i, i + 1, ... that fall within this change, where
+    // sample i is at time t0 + i * dt since the start of the change. Returns the next sample.
+    private int sampleInto(
+        final double t0,
+        final double dt,
+        int i,
+        final int n,
+        final double startPosition,
+        final double[] pos,
+        final double[] vel,
+        final int offset) {
+      for (; i < n && t0 + i * dt < m_jerkTime; i++) {
+        final double t = t0 + i * dt;
+        vel[offset + i] = m_startVelocity + 0.5 * m_jerk * t * t;
+        pos[offset + i] = startPosition + (m_startVelocity + m_jerk * t * t / 6.0) * t;
+      }
+      final double velocity = m_startVelocity + 0.5 * m_accel * m_jerkTime;
+      final double position =
+          startPosition + (m_startVelocity + m_accel * m_jerkTime / 6.0) * m_jerkTime;
+      for (; i < n && t0 + i * dt < m_jerkTime + m_constantAccelTime; i++) {
+        final double t = t0 + i * dt - m_jerkTime;
+        vel[offset + i] = velocity + m_accel * t;
+        pos[offset + i] = position + (velocity + 0.5 * m_accel * t) * t;
+      }
+      for (; i < n && t0 + i * dt < m_duration; i++) {
+        final double timeLeft = m_duration - (t0 + i * dt);
+        vel[offset + i] = m_endVelocity - 0.5 * m_jerk * timeLeft * timeLeft;
+        pos[offset + i] =
+            startPosition
+                + m_distance
+                - (m_endVelocity - m_jerk * timeLeft * timeLeft / 6.0) * timeLeft;
+      }
+      return i;
+    }
+  }
+
+  private Constraints m_constraints;
+  private double m_initialPosition;
+  private double m_initialVelocity;
+  private double m_goalPosition;
+  private double m_goalVelocity;
+
+  private double m_peakVelocity;
+  private final VelocityChange m_first = new VelocityChange();
+  private final VelocityChange m_second = new VelocityChange();
+
+  private double m_endFirst;
+  private double m_endCruise;
+  private double m_endSecond;
+
+  // Scratch state for timeLeftUntil().
+  private final State m_scratch = new State();
+
+  /**
+   * Construct an S-curve profile.
+   *
+   * @param constraints The constraints on the profile, like maximum velocity.
+   * @param goal The desired state when the profile is complete.
+   * @param initial The initial state (usually the current state).
+   */
+  public QuixSCurveProfile(Constraints constraints, State goal, State initial) {
+    reset(constraints, goal, initial);
+  }
+
+  /**
+   * Regenerates this profile in place without allocating.
+   *
+   * @param constraints The constraints on the profile, like maximum velocity.
+   * @param goal The desired state when the profile is complete.
+   * @param initial The initial state (usually the current state).
+   */
+  public void reset(Constraints constraints, State goal, State initial) {
+    reset(constraints, goal.position, goal.velocity, initial.position, initial.velocity);
+  }
+
+  /** Same as {@link #reset(Constraints, State, State)}, but takes the states' components. */
+  public void reset(
+      Constraints constraints,
+      final double goalPosition,
+      final double goalVelocity,
+      final double initialPosition,
+      final double initialVelocity) {
+    m_constraints = constraints;
+    final double maxV = constraints.maxVelocity;
+    final double maxA = constraints.maxAcceleration;
+    final double maxJ = constraints.maxJerk;
+    m_initialPosition = initialPosition;
+    m_initialVelocity = Math.max(Math.min(initialVelocity, maxV), -maxV);
+    m_goalPosition = goalPosition;
+    m_goalVelocity = Math.max(Math.min(goalVelocity, maxV), -maxV);
+
+    // Going straight from the initial to the goal velocity covers a fixed distance. If the goal is
+    // further than that, the profile peaks above both velocities. Otherwise, it dips below both.
+    // Solve in a frame mirrored so that the middle velocity is always a peak.
+    final double distance = goalPosition - initialPosition;
+    final double straightDistance =
+        velocityChangeDistance(m_initialVelocity, m_goalVelocity, maxA, maxJ);
+    final double sign = distance >= straightDistance ? 1.0 : -1.0;
+    final double v0 = sign * m_initialVelocity;
+    final double v1 = sign * m_goalVelocity;
+    final double d = sign * distance;
+
+    double peak;
+    double cruiseTime = 0.0;
+    final double maxPeakDistance = peakDistance(v0, maxV, v1, maxA, maxJ);
+    if (maxPeakDistance <= d) {
+      // Cruise at max velocity for the remaining distance.
+      peak = maxV;
+      cruiseTime = maxV > 0.0 ? (d - maxPeakDistance) / maxV : 0.0;
+    } else {
+      // If both velocity changes reach max acceleration, the distance is quadratic in the peak.
+      final double rampTime = jerkRampTime(maxA, maxJ);
+      final double minDeltaV = maxA * rampTime;
+      final double c = -(v0 * v0 + v1 * v1) / (2.0 * maxA) + 0.5 * (v0 + v1) * rampTime - d;
+      peak = 0.5 * maxA * (Math.sqrt(rampTime * rampTime - 4.0 * c / maxA) - rampTime);
+      if (!(peak - v0 >= minDeltaV && peak - v1 >= minDeltaV && peak <= maxV)) {
+        // Otherwise, bisect. peakDistance() is below d at lo and above d at hi.
+        double lo = Math.max(v0, v1);
+        double hi = maxV;
+        for (int i = 0; i < kMaxIterations && hi - lo > kVelocityTolerance; i++) {
+          final double mid = 0.5 * (lo + hi);
+          if (peakDistance(v0, mid, v1, maxA, maxJ) < d) {
+            lo = mid;
+          } else {
+            hi = mid;
+          }
+        }
+        peak = 0.5 * (lo + hi);
+      }
+    }
+
+    m_peakVelocity = sign * peak;
+    m_first.reset(m_initialVelocity, m_peakVelocity, maxA, maxJ);
+    m_second.reset(m_peakVelocity, m_goalVelocity, maxA, maxJ);
+    m_endFirst = m_first.m_duration;
+    m_endCruise = m_endFirst + cruiseTime;
+    m_endSecond = m_endCruise + m_second.m_duration;
+  }
+
+  /**
+   * Calculate the correct position and velocity for the profile at a time t where the beginning of
+   * the profile was at time t = 0.
+   *
+   * @param t The time since the beginning of the profile.
+   * @return The position and velocity of the profile at time t.
+   */
+  public State calculate(final double t) {
+    return calculateInto(t, new State());
+  }
+
+  /**
+   * Same as {@link #calculate(double)}, but writes the result into {@code out} instead of
+   * allocating a new State.
+   *
+   * @param t The time since the beginning of the profile.
+   * @param out The State to write the position and velocity of the profile at time t into.
+   * @return out
+   */
+  public State calculateInto(final double t, final State out) {
+    if (t <= 0.0) {
+      out.position = m_initialPosition;
+      out.velocity = m_initialVelocity;
+    } else if (t < m_endFirst) {
+      m_first.sample(t, m_initialPosition, out);
+    } else if (t < m_endCruise) {
+      out.position =
+          m_initialPosition + m_first.m_distance + m_peakVelocity * (t - m_endFirst);
+      out.velocity = m_peakVelocity;
+    } else if (t < m_endSecond) {
+      m_second.sample(t - m_endCruise, m_goalPosition - m_second.m_distance, out);
+    } else {
+      out.position = m_goalPosition;
+      out.velocity = m_goalVelocity;
+    }
+    return out;
+  }
+
+  /**
+   * Samples the profile at n evenly spaced times t0, t0 + dt, ... into primitive arrays, without
+   * allocating. Equivalent to calling {@link #calculate(double)} at each time.
+   *
+   * @param t0 The time of the first sample since the beginning of the profile.
+   * @param dt The time between samples. Must not be negative.
+   * @param n The number of samples.
+   * @param pos Array to write the sampled positions into.
+   * @param vel Array to write the sampled velocities into.
+   */
+  public void sampleInto(
+      final double t0, final double dt, final int n, final double[] pos, final double[] vel) {
+    sampleInto(t0, dt, n, pos, vel, 0);
+  }
+
+  /**
+   * Same as {@link #sampleInto(double, double, int, double[], double[])}, but writes the samples
+   * starting at the given offset into the arrays.
+   */
+  public void sampleInto(
+      final double t0,
+      final double dt,
+      final int n,
+      final double[] pos,
+      final double[] vel,
+      final int offset) {
+    // Sample times increase, so each segment is visited once and in order.
+    int i = 0;
+    for (; i < n && t0 + i * dt <= 0.0; i++) {
+      pos[offset + i] = m_initialPosition;
+      vel[offset + i] = m_initialVelocity;
+    }
+    i = m_first.sampleInto(t0, dt, i, n, m_initialPosition, pos, vel, offset);
+    final double cruiseStart = m_initialPosition + m_first.m_distance;
+    for (; i < n && t0 + i * dt < m_endCruise; i++) {
+      pos[offset + i] = cruiseStart + m_peakVelocity * (t0 + i * dt - m_endFirst);
+      vel[offset + i] = m_peakVelocity;
+    }
+    i =
+        m_second.sampleInto(
+            t0 - m_endCruise, dt, i, n, m_goalPosition - m_second.m_distance, pos, vel, offset);
+    for (; i < n; i++) {
+      pos[offset + i] = m_goalPosition;
+      vel[offset + i] = m_goalVelocity;
+    }
+  }
+
+  /**
+   * Returns the time left until a target distance in the profile is reached.
+   *
+   * <p>Assumes that the profile moves monotonically towards the goal, which holds unless the
+   * initial or goal velocity points away from it or the profile overshoots.
+   *
+   * @param target The target distance.
+   * @return The time left until a target distance in the profile is reached.
+   */
+  public double timeLeftUntil(final double target) {
+    final double direction = m_goalPosition >= m_initialPosition ? 1.0 : -1.0;
+    if ((target - m_initialPosition) * direction <= 0.0) {
+      return 0.0;
+    }
+    if ((target - m_goalPosition) * direction >= 0.0) {
+      return totalTime();
+    }
+    double lo = 0.0;
+    double hi = totalTime();
+    for (int i = 0; i < kMaxIterations; i++) {
+      final double mid = 0.5 * (lo + hi);
+      if ((calculateInto(mid, m_scratch).position - target) * direction < 0.0) {
+        lo = mid;
+      } else {
+        hi = mid;
+      }
+    }
+    return 0.5 * (lo + hi);
+  }
+
+  /**
+   * Returns the total time the profile takes to reach the goal.
+   *
+   * @return The total time the profile takes to reach the goal.
+   */
+  public double totalTime() {
+    return m_endSecond;
+  }
+
+  /**
+   * Returns true if the profile has reached the goal.
+   *
+   * <p>The profile has reached the goal if the time since the profile started has exceeded the
+   * profile's total time.
+   *
+   * @param t The time since the beginning of the profile.
+   * @return True if the profile has reached the goal.
+   */
+  public boolean isFinished(final double t) {
+    return t >= totalTime();
+  }
+
+  /** Returns the peak (or minimum) velocity of the profile, which is held while cruising. */
+  public double getPeakVelocity() {
+    return m_peakVelocity;
+  }
+
+  public Constraints getConstraints() {
+    return m_constraints;
+  }
+
+  // Time to ramp from zero to max acceleration.
+  private static double jerkRampTime(final double maxAcceleration, final double maxJerk) {
+    return maxJerk > 0.0 ? maxAcceleration / maxJerk : 0.0;
+  }
+
+  private static double velocityChangeDistance(
+      final double startVelocity,
+      final double endVelocity,
+      final double maxAcceleration,
+      final double maxJerk) {
+    final double deltaV = Math.abs(endVelocity - startVelocity);
+    final double rampTime = jerkRampTime(maxAcceleration, maxJerk);
+    final double duration =
+        deltaV < maxAcceleration * rampTime
+            ? 2.0 * Math.sqrt(deltaV / maxJerk)
+            : deltaV / maxAcceleration + rampTime;
+    return 0.5 * (startVelocity + endVelocity) * duration;
+  }
+
+  // Distance covered going from v0 to peak to v1 without cruising.
+  private static double peakDistance(
+      final double v0,
+      final double peak,
+      final double v1,
+      final double maxAcceleration,
+      final double maxJerk) {
+    return velocityChangeDistance(v0, peak, maxAcceleration, maxJerk)
+        + velocityChangeDistance(peak, v1, maxAcceleration, maxJerk);
+  }
+}
@@ -36,18 +36,24 @@ import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
  *
  * <p>Otherwise, a timer can be started to provide monotonic values for `calculate()` and to
  * determine when the profile has completed via `isFinished()`.
+ *
+ * <p>To avoid allocating every loop, construct the profile and its reference State once and call
+ * `reset()` and `calculateInto()` on update instead.
  */
 public class QuixTrapezoidProfile {
   // The direction of the profile, either 1 for forwards or -1 for inverted
-  private final int m_direction;
+  private int m_direction;
 
-  private final Constraints m_constraints;
-  private final State m_initial;
-  private final State m_goal;
+  private Constraints m_constraints;
+  // Initial and goal states, flipped by m_direction so that the profile always moves forwards.
+  private double m_initialPosition;
+  private double m_initialVelocity;
+  private double m_goalPosition;
+  private double m_goalVelocity;
 
-  private final double m_endAccel;
-  private final double m_endFullSpeed;
-  private final double m_endDeccel;
+  private double m_endAccel;
+  private double m_endFullSpeed;
+  private double m_endDeccel;
 
   /**
    * Construct a TrapezoidProfile.
@@ -57,29 +63,53 @@ public class QuixTrapezoidProfile {
    * @param initial The initial state (usually the current state).
    */
   public QuixTrapezoidProfile(Constraints constraints, State goal, State initial) {
-    m_direction = shouldFlipAcceleration(initial, goal) ? -1 : 1;
+    reset(constraints, goal, initial);
+  }
+
+  /**
+   * Regenerates this profile in place. Does not allocate, so a single profile can be reused and
+   * regenerated every loop against a moving goal.
+   *
+   * @param constraints The constraints on the profile, like maximum velocity.
+   * @param goal The desired state when the profile is complete.
+   * @param initial The initial state (usually the current state).
+   */
+  public void reset(Constraints constraints, State goal, State initial) {
+    reset(constraints, goal.position, goal.velocity, initial.position, initial.velocity);
+  }
+
+  /** Same as {@link #reset(Constraints, State, State)}, but takes the states' components. */
+  public void reset(
+      Constraints constraints,
+      final double goalPosition,
+      final double goalVelocity,
+      final double initialPosition,
+      final double initialVelocity) {
+    m_direction = shouldFlipAcceleration(initialPosition, goalPosition) ? -1 : 1;
     m_constraints = constraints;
-    m_initial = direct(initial);
-    m_goal = direct(goal);
+    m_initialPosition = initialPosition * m_direction;
+    m_initialVelocity = initialVelocity * m_direction;
+    m_goalPosition = goalPosition * m_direction;
+    m_goalVelocity = goalVelocity * m_direction;
 
-    if (m_initial.velocity > m_constraints.maxVelocity) {
-      m_initial.velocity = m_constraints.maxVelocity;
+    if (m_initialVelocity > m_constraints.maxVelocity) {
+      m_initialVelocity = m_constraints.maxVelocity;
     }
 
     // Deal with a possibly truncated motion profile (with nonzero initial or
     // final velocity) by calculating the parameters as if the profile began and
     // ended at zero velocity
-    double cutoffBegin = m_initial.velocity / m_constraints.maxAcceleration;
+    double cutoffBegin = m_initialVelocity / m_constraints.maxAcceleration;
     double cutoffDistBegin = cutoffBegin * cutoffBegin * m_constraints.maxAcceleration / 2.0;
 
-    double cutoffEnd = m_goal.velocity / m_constraints.maxAcceleration;
+    double cutoffEnd = m_goalVelocity / m_constraints.maxAcceleration;
     double cutoffDistEnd = cutoffEnd * cutoffEnd * m_constraints.maxAcceleration / 2.0;
 
     // Now we can calculate the parameters as if it was a full trapezoid instead
     // of a truncated one
 
     double fullTrapezoidDist =
-        cutoffDistBegin + (m_goal.position - m_initial.position) + cutoffDistEnd;
+        cutoffDistBegin + (m_goalPosition - m_initialPosition) + cutoffDistEnd;
     double accelerationTime = m_constraints.maxVelocity / m_constraints.maxAcceleration;
 
     double fullSpeedDist =
@@ -104,27 +134,98 @@ public class QuixTrapezoidProfile {
    * @return The position and velocity of the profile at time t.
    */
   public State calculate(final double t) {
-    State result = new State(m_initial.position, m_initial.velocity);
+    return calculateInto(t, new State());
+  }
+
+  /**
+   * Same as {@link #calculate(double)}, but writes the result into {@code out} instead of
+   * allocating a new State.
+   *
+   * @param t The time since the beginning of the profile.
+   * @param out The State to write the position and velocity of the profile at time t into.
+   * @return out
+   */
+  public State calculateInto(final double t, final State out) {
+    double position = m_initialPosition;
+    double velocity = m_initialVelocity;
 
     if (t < m_endAccel) {
-      result.velocity += t * m_constraints.maxAcceleration;
-      result.position += (m_initial.velocity + t * m_constraints.maxAcceleration / 2.0) * t;
+      velocity += t * m_constraints.maxAcceleration;
+      position += (m_initialVelocity + t * m_constraints.maxAcceleration / 2.0) * t;
     } else if (t < m_endFullSpeed) {
-      result.velocity = m_constraints.maxVelocity;
-      result.position +=
-          (m_initial.velocity + m_endAccel * m_constraints.maxAcceleration / 2.0) * m_endAccel
+      velocity = m_constraints.maxVelocity;
+      position +=
+          (m_initialVelocity + m_endAccel * m_constraints.maxAcceleration / 2.0) * m_endAccel
               + m_constraints.maxVelocity * (t - m_endAccel);
     } else if (t <= m_endDeccel) {
-      result.velocity = m_goal.velocity + (m_endDeccel - t) * m_constraints.maxAcceleration;
+      velocity = m_goalVelocity + (m_endDeccel - t) * m_constraints.maxAcceleration;
       double timeLeft = m_endDeccel - t;
-      result.position =
-          m_goal.position
-              - (m_goal.velocity + timeLeft * m_constraints.maxAcceleration / 2.0) * timeLeft;
+      position =
+          m_goalPosition
+              - (m_goalVelocity + timeLeft * m_constraints.maxAcceleration / 2.0) * timeLeft;
     } else {
-      result = m_goal;
+      position = m_goalPosition;
+      velocity = m_goalVelocity;
     }
 
-    return direct(result);
+    // Flip the sign of the velocity and position back if the profile is inverted
+    out.position = position * m_direction;
+    out.velocity = velocity * m_direction;
+    return out;
+  }
+
+  /**
+   * Samples the profile at n evenly spaced times t0, t0 + dt, ... into primitive arrays, without
+   * allocating. Equivalent to calling {@link #calculate(double)} at each time.
+   *
+   * @param t0 The time of the first sample since the beginning of the profile.
+   * @param dt The time between samples. Must not be negative.
+   * @param n The number of samples.
+   * @param pos Array to write the sampled positions into.
+   * @param vel Array to write the sampled velocities into.
+   */
+  public void sampleInto(
+      final double t0, final double dt, final int n, final double[] pos, final double[] vel) {
+    sampleInto(t0, dt, n, pos, vel, 0);
+  }
+
+  /**
+   * Same as {@link #sampleInto(double, double, int, double[], double[])}, but writes the samples
+   * starting at the given offset into the arrays.
+   */
+  public void sampleInto(
+      final double t0,
+      final double dt,
+      final int n,
+      final double[] pos,
+      final double[] vel,
+      final int offset) {
+    final double maxA = m_constraints.maxAcceleration;
+    final double maxV = m_constraints.maxVelocity;
+    // Sample times increase, so each segment is visited once and in order.
+    int i = 0;
+    for (; i < n && t0 + i * dt < m_endAccel; i++) {
+      final double t = t0 + i * dt;
+      pos[offset + i] =
+          (m_initialPosition + (m_initialVelocity + t * maxA / 2.0) * t) * m_direction;
+      vel[offset + i] = (m_initialVelocity + t * maxA) * m_direction;
+    }
+    final double accelDist = (m_initialVelocity + m_endAccel * maxA / 2.0) * m_endAccel;
+    for (; i < n && t0 + i * dt < m_endFullSpeed; i++) {
+      final double t = t0 + i * dt;
+      pos[offset + i] = (m_initialPosition + accelDist + maxV * (t - m_endAccel)) * m_direction;
+      vel[offset + i] = maxV * m_direction;
+    }
+    for (; i < n && t0 + i * dt <= m_endDeccel; i++) {
+      final double timeLeft = m_endDeccel - (t0 + i * dt);
+      pos[offset + i] =
+          (m_goalPosition - (m_goalVelocity + timeLeft * maxA / 2.0) * timeLeft) * m_direction;
+      vel[offset + i] = (m_goalVelocity + timeLeft * maxA) * m_direction;
+    }
+    for (; i < n; i++) {
+      pos[offset + i] = m_goalPosition * m_direction;
+      vel[offset + i] = m_goalVelocity * m_direction;
+    }
   }
 
   /**
@@ -134,8 +235,8 @@ public class QuixTrapezoidProfile {
    * @return The time left until a target distance in the profile is reached.
    */
   public double timeLeftUntil(final double target) {
-    double position = m_initial.position * m_direction;
-    double velocity = m_initial.velocity * m_direction;
+    double position = m_initialPosition * m_direction;
+    double velocity = m_initialVelocity * m_direction;
 
     double endAccel = m_endAccel * m_direction;
     double endFullSpeed = m_endFullSpeed * m_direction - endAccel;
@@ -222,18 +323,11 @@ public class QuixTrapezoidProfile {
    *
    * <p>The profile is inverted if goal position is less than the initial position.
    *
-   * @param initial The initial state (usually the current state).
-   * @param goal The desired state when the profile is complete.
+   * @param initialPosition The initial position (usually the current position).
+   * @param goalPosition The desired position when the profile is complete.
    */
-  private static boolean shouldFlipAcceleration(final State initial, final State goal) {
-    return initial.position > goal.position;
-  }
-
-  // Flip the sign of the velocity and position if the profile is inverted
-  private State direct(final State in) {
-    final State result = new State(in.position, in.velocity);
-    result.position = result.position * m_direction;
-    result.velocity = result.velocity * m_direction;
-    return result;
+  private static boolean shouldFlipAcceleration(
+      final double initialPosition, final double goalPosition) {
+    return initialPosition > goalPosition;
   }
 }
@@ -0,0 +1,182 @@
+package frc.quixlib.profiling;
+
+import com.ctre.phoenix6.SignalLogger;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.HashMap;
+
+/**
+ * Per-command-class counters for the command scheduler, exported through SignalLogger.
+ *
+ * <p>Uses the scheduler's initialize, execute, finish and interrupt callbacks to record, per
+ * command class:
+ *
+ * <ul>
+ *   <li>the number of times commands were initialized, executed, finished and interrupted,
+ *   <li>the cumulative and max time spent in execute(),
+ *   <li>the cumulative time commands spent scheduled, summed over concurrent instances, and the
+ *       number currently scheduled.
+ * </ul>
+ *
+ * <p>Counts and cumulative times are totals since boot. The max execute() time is over the last
+ * publish period. Execute times come from the hook installed by {@link
+ * LoopProfiler#bindCommandProfiling}, which must also be called, so they also include the
+ * isFinished() and end() of the command that ran before. Only commands scheduled directly are seen,
+ * so a composition is recorded as its group class.
+ *
+ * <p>Counters live in preallocated arrays indexed by class, so recording does not allocate or lock
+ * once a class has been seen. Classes beyond {@link #kMaxCommandClasses} share a final "Other"
+ * slot.
+ *
+ * <p>This class is not thread-safe and should only be used from the main robot thread.
+ */
+public class CommandProfiler {
+  public static final int kMaxCommandClasses = 64;
+  private static final int kPublishPeriodLoops = 50; // 1 s at 50 Hz
+  private static final double kNsToMs = 1e-6;
+  private static final double kNsToS = 1e-9;
+
+  private static final HashMap<Class<?>, Integer> m_indexByClass = new HashMap<>();
+  private static final LogKeys[] m_logKeys = new LogKeys[kMaxCommandClasses];
+  private static int m_numClasses = 0;
+
+  private static final long[] m_initializeCounts = new long[kMaxCommandClasses];
+  private static final long[] m_executeCounts = new long[kMaxCommandClasses];
+  private static final long[] m_finishCounts = new long[kMaxCommandClasses];
+  private static final long[] m_interruptCounts = new long[kMaxCommandClasses];
+  private static final long[] m_executeTotalNs = new long[kMaxCommandClasses];
+  private static final long[] m_executeMaxNs = new long[kMaxCommandClasses];
+  private static final long[] m_scheduledTotalNs = new long[kMaxCommandClasses];
+  private static final int[] m_scheduledCounts = new int[kMaxCommandClasses];
+  // When m_scheduledTotalNs was last brought up to date.
+  private static final long[] m_scheduledMarkNs = new long[kMaxCommandClasses];
+
+  private static int m_loopCount = 0;
+  private static boolean m_bound = false;
+
+  /** SignalLogger keys for one command class, built once so that publishing does not allocate. */
+  private static class LogKeys {
+    private final String initializeCount;
+    private final String executeCount;
+    private final String finishCount;
+    private final String interruptCount;
+    private final String scheduledCount;
+    private final String executeTotal;
+    private final String executeMax;
+    private final String scheduledTotal;
+
+    private LogKeys(final String name) {
+      final String prefix = "CommandProfiler/" + name + "/";
+      initializeCount = prefix + "initializeCount";
+      executeCount = prefix + "executeCount";
+      finishCount = prefix + "finishCount";
+      interruptCount = prefix + "interruptCount";
+      scheduledCount = prefix + "scheduledCount";
+      executeTotal = prefix + "executeTotal";
+      executeMax = prefix + "executeMax";
+      scheduledTotal = prefix + "scheduledTotal";
+    }
+  }
+
+  private CommandProfiler() {}
+
+  /**
+   * Hooks the command scheduler's initialize, finish and interrupt callbacks. Execute times are
+   * recorded by the hook of {@link LoopProfiler#bindCommandProfiling}.
+   */
+  public static void bind(final CommandScheduler scheduler) {
+    m_bound = true;
+    scheduler.onCommandInitialize(CommandProfiler::onCommandInitialize);
+    scheduler.onCommandFinish(CommandProfiler::onCommandFinish);
+    scheduler.onCommandInterrupt(CommandProfiler::onCommandInterrupt);
+  }
+
+  private static void onCommandInitialize(final Command command) {
+    final int i = getIndex(command);
+    m_initializeCounts[i]++;
+    accumulateScheduledTime(i, System.nanoTime());
+    m_scheduledCounts[i]++;
+  }
+
+  /** Called by LoopProfiler's execute hook with the time it attributed to the command. */
+  static void recordExecute(final Command command, final long durationNs) {
+    if (!m_bound) {
+      return;
+    }
+    final int i = getIndex(command);
+    m_executeCounts[i]++;
+    m_executeTotalNs[i] += durationNs;
+    m_executeMaxNs[i] = Math.max(m_executeMaxNs[i], durationNs);
+  }
+
+  private static void onCommandFinish(final Command command) {
+    final int i = getIndex(command);
+    m_finishCounts[i]++;
+    onCommandEnd(i);
+  }
+
+  private static void onCommandInterrupt(final Command command) {
+    final int i = getIndex(command);
+    m_interruptCounts[i]++;
+    onCommandEnd(i);
+  }
+
+  private static void onCommandEnd(final int i) {
+    accumulateScheduledTime(i, System.nanoTime());
+    m_scheduledCounts[i] = Math.max(m_scheduledCounts[i] - 1, 0);
+  }
+
+  private static void accumulateScheduledTime(final int i, final long nowNs) {
+    m_scheduledTotalNs[i] += m_scheduledCounts[i] * (nowNs - m_scheduledMarkNs[i]);
+    m_scheduledMarkNs[i] = nowNs;
+  }
+
+  private static int getIndex(final Command command) {
+    final Integer index = m_indexByClass.get(command.getClass());
+    if (index != null) {
+      return index;
+    }
+    final int i;
+    if (m_numClasses < kMaxCommandClasses - 1) {
+      i = m_numClasses++;
+      m_logKeys[i] = new LogKeys(getClassName(command.getClass()));
+    } else {
+      i = kMaxCommandClasses - 1;
+      if (m_logKeys[i] == null) {
+        m_logKeys[i] = new LogKeys("Other");
+        m_numClasses = kMaxCommandClasses;
+      }
+    }
+    m_indexByClass.put(command.getClass(), i);
+    return i;
+  }
+
+  private static String getClassName(final Class<?> commandClass) {
+    final String simpleName = commandClass.getSimpleName();
+    // Anonymous classes have no simple name.
+    return simpleName.isEmpty() ? commandClass.getName() : simpleName;
+  }
+
+  /** Should be called once per loop. Publishes all counters once per period. */
+  public static void update() {
+    m_loopCount++;
+    if (m_loopCount < kPublishPeriodLoops) {
+      return;
+    }
+    m_loopCount = 0;
+    final long nowNs = System.nanoTime();
+    for (int i = 0; i < m_numClasses; i++) {
+      accumulateScheduledTime(i, nowNs);
+      final LogKeys keys = m_logKeys[i];
+      SignalLogger.writeInteger(keys.initializeCount, m_initializeCounts[i], "");
+      SignalLogger.writeInteger(keys.executeCount, m_executeCounts[i], "");
+      SignalLogger.writeInteger(keys.finishCount, m_finishCounts[i], "");
+      SignalLogger.writeInteger(keys.interruptCount, m_interruptCounts[i], "");
+      SignalLogger.writeInteger(keys.scheduledCount, m_scheduledCounts[i], "");
+      SignalLogger.writeDouble(keys.executeTotal, m_executeTotalNs[i] * kNsToMs, "ms");
+      SignalLogger.writeDouble(keys.executeMax, m_executeMaxNs[i] * kNsToMs, "ms");
+      SignalLogger.writeDouble(keys.scheduledTotal, m_scheduledTotalNs[i] * kNsToS, "s");
+      m_executeMaxNs[i] = 0;
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package frc.quixlib.profiling;
+
+import com.ctre.phoenix6.SignalLogger;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.event.EventLoop;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A low-overhead profiler that attributes robot loop time to named sections.
+ *
+ * <p>Each {@link Section} records durations into a preallocated fixed-width histogram. Once per
+ * publish period, {@link #update()} publishes p50/p99/max per section to NetworkTables and
+ * SignalLogger and then resets the histograms. Recording a duration does not allocate.
+ *
+ * <p>Usage:
+ *
+ * <pre><code>
+ * private final LoopProfiler.Section m_profile = LoopProfiler.getSection("Foo.periodic()");
+ *
+ * public void periodic() {
+ *   m_profile.start();
+ *   ...
+ *   m_profile.stop();
+ * }
+ * </code></pre>
+ *
+ * <p>This class is not thread-safe and should only be used from the main robot thread.
+ */
+public class LoopProfiler {
+  private static final long kBinWidthNs = 20_000; // 20 us
+  private static final int kNumBins = 1000; // Covers 20 ms. Longer durations go in an overflow bin.
+  private static final int kPublishPeriodLoops = 50; // 1 s at 50 Hz
+  private static final double kNsToMs = 1e-6;
+
+  private static final NetworkTable m_table =
+      NetworkTableInstance.getDefault().getTable("LoopProfiler");
+  private static final ArrayList<Section> m_sections = new ArrayList<>();
+  private static final HashMap<String, Section> m_sectionsByName = new HashMap<>();
+  private static final HashMap<String, Section> m_commandSectionsByName = new HashMap<>();
+  private static int m_loopCount = 0;
+  private static long m_commandMarkNs = 0;
+
+  /** A named section of the robot loop. */
+  public static class Section {
+    private final String m_name;
+    private final long[] m_histogram = new long[kNumBins + 1];
+    private long m_count = 0;
+    private long m_maxNs = 0;
+    private long m_startNs = 0;
+
+    private final DoublePublisher m_p50Publisher;
+    private final DoublePublisher m_p99Publisher;
+    private final DoublePublisher m_maxPublisher;
+    private final String m_p50LogKey;
+    private final String m_p99LogKey;
+    private final String m_maxLogKey;
+
+    private Section(final String name) {
+      m_name = name;
+      final NetworkTable table = m_table.getSubTable(name);
+      m_p50Publisher = table.getDoubleTopic("p50 (ms)").publish();
+      m_p99Publisher = table.getDoubleTopic("p99 (ms)").publish();
+      m_maxPublisher = table.getDoubleTopic("max (ms)").publish();
+      m_p50LogKey = "LoopProfiler/" + name + "/p50";
+      m_p99LogKey = "LoopProfiler/" + name + "/p99";
+      m_maxLogKey = "LoopProfiler/" + name + "/max";
+    }
+
+    public String getName() {
+      return m_name;
+    }
+
+    /** Marks the start of the section. */
+    public void start() {
+      m_startNs = System.nanoTime();
+    }
+
+    /** Marks the end of the section and records the time since {@link #start()}. */
+    public void stop() {
+      record(System.nanoTime() - m_startNs);
+    }
+
+    /** Records a duration in nanoseconds. */
+    public void record(final long durationNs) {
+      final long bin = Math.max(durationNs, 0) / kBinWidthNs;
+      m_histogram[(int) Math.min(bin, kNumBins)]++;
+      m_count++;
+      m_maxNs = Math.max(m_maxNs, durationNs);
+    }
+
+    /** Returns the approximate given percentile (0.0 to 1.0) in nanoseconds. */
+    public long getPercentileNs(final double percentile) {
+      if (m_count == 0) {
+        return 0;
+      }
+      final long target = Math.max(1, (long) Math.ceil(percentile * m_count));
+      long cumulative = 0;
+      for (int i = 0; i < kNumBins; i++) {
+        cumulative += m_histogram[i];
+        if (cumulative >= target) {
+          // Report the bin center, but never more than the observed max.
+          return Math.min(i * kBinWidthNs + kBinWidthNs / 2, m_maxNs);
+        }
+      }
+      return m_maxNs;
+    }
+
+    public long getMaxNs() {
+      return m_maxNs;
+    }
+
+    private void publishAndReset() {
+      if (m_count > 0) {
+        final double p50 = getPercentileNs(0.5) * kNsToMs;
+        final double p99 = getPercentileNs(0.99) * kNsToMs;
+        final double max = m_maxNs * kNsToMs;
+        m_p50Publisher.set(p50);
+        m_p99Publisher.set(p99);
+        m_maxPublisher.set(max);
+        SignalLogger.writeDouble(m_p50LogKey, p50, "ms");
+        SignalLogger.writeDouble(m_p99LogKey, p99, "ms");
+        SignalLogger.writeDouble(m_maxLogKey, max, "ms");
+      }
+      Arrays.fill(m_histogram, 0);
+      m_count = 0;
+      m_maxNs = 0;
+    }
+  }
+
+  private LoopProfiler() {}
+
+  /** Returns the section with the given name, creating it if necessary. */
+  public static Section getSection(final String name) {
+    Section section = m_sectionsByName.get(name);
+    if (section == null) {
+      section = new Section(name);
+      m_sectionsByName.put(name, section);
+      m_sections.add(section);
+    }
+    return section;
+  }
+
+  /**
+   * Attributes time to each scheduled command's execute() by hooking the command scheduler.
+   *
+   * <p>The scheduler only notifies after execute(), so each command is charged the time since the
+   * previous notification. The first mark is set at the end of the button loop poll, which runs
+   * immediately before commands are executed. This means a command's time also includes the
+   * isFinished() and end() of the command that ran before it. Call this after all button bindings
+   * have been created so the mark runs after them.
+   *
+   * <p>The same times are passed on to {@link CommandProfiler} if it is bound, so the scheduler
+   * has a single execute hook.
+   */
+  public static void bindCommandProfiling(final CommandScheduler scheduler) {
+    final EventLoop buttonLoop = scheduler.getDefaultButtonLoop();
+    buttonLoop.bind(() -> m_commandMarkNs = System.nanoTime());
+    scheduler.onCommandExecute(LoopProfiler::onCommandExecute);
+  }
+
+  private static void onCommandExecute(final Command command) {
+    final long nowNs = System.nanoTime();
+    Section section = m_commandSectionsByName.get(command.getName());
+    if (section == null) {
+      section = getSection(command.getName() + ".execute()");
+      m_commandSectionsByName.put(command.getName(), section);
+    }
+    final long durationNs = nowNs - m_commandMarkNs;
+    section.record(durationNs);
+    CommandProfiler.recordExecute(command, durationNs);
+    m_commandMarkNs = nowNs;
+  }
+
+  /** Should be called once per loop. Publishes and resets all sections once per period. */
+  public static void update() {
+    m_loopCount++;
+    if (m_loopCount < kPublishPeriodLoops) {
+      return;
+    }
+    m_loopCount = 0;
+    for (int i = 0; i < m_sections.size(); i++) {
+      m_sections.get(i).publishAndReset();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package frc.quixlib.simulation;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Steps a mechanism simulation at 1 kHz on its own thread, like the swerve sim thread.
+ *
+ * <p>Simulated TalonFX closed loops run at 1 kHz, so stepping the plant once per 20 ms robot loop
+ * feeds them stale, stair-stepped sensor data. Stepping at the same rate as the closed loop, with
+ * the TalonFX sim state's motor voltage as the input, lets the sensor velocity be fed back and lets
+ * PID gains tuned in simulation carry over to the real robot.
+ *
+ * <p>Each step is given the time elapsed since the previous one, split into equal substeps no
+ * longer than {@link #kPeriod}, so late wakeups don't make the plant integration coarser. Time is
+ * the FPGA timestamp, so the loop follows simulated time when timing is paused and stepped with
+ * SimHooks.
+ *
+ * <p>The loop does not run until {@link #start()} is called. Create it in a field initializer and
+ * start it at the end of the owner's constructor, so the step never sees a partially constructed
+ * owner.
+ *
+ * <p>Steps run while holding this object's monitor. Other threads that read the simulated state,
+ * e.g. for visualization, should synchronize on it.
+ */
+public class QuixMechanismSimLoop implements AutoCloseable {
+  public static final double kPeriod = 0.001; // 1 kHz
+  // Longer gaps, e.g. from a debugger pause, are dropped rather than simulated.
+  private static final double kMaxElapsed = 0.1; // s
+
+  private final DoubleConsumer m_step;
+  private final Notifier m_notifier;
+  private double m_lastTime;
+
+  /**
+   * Creates the loop without starting it.
+   *
+   * @param name Name of the loop's thread.
+   * @param step Advances the simulation by the given time in seconds.
+   */
+  public QuixMechanismSimLoop(final String name, final DoubleConsumer step) {
+    m_step = step;
+    m_notifier = new Notifier(this::run);
+    m_notifier.setName(name);
+  }
+
+  /** Starts stepping the simulation. Time before this call is not simulated. */
+  public synchronized void start() {
+    m_lastTime = Timer.getFPGATimestamp();
+    m_notifier.startPeriodic(kPeriod);
+  }
+
+  private synchronized void run() {
+    final double now = Timer.getFPGATimestamp();
+    final double elapsed = Math.min(now - m_lastTime, kMaxElapsed);
+    m_lastTime = now;
+    if (elapsed <= 0.0) {
+      return;
+    }
+    final int substeps = (int) Math.ceil(elapsed / kPeriod - 1e-6);
+    final double dt = elapsed / substeps;
+    for (int i = 0; i < substeps; i++) {
+      m_step.accept(dt);
+    }
+  }
+
+  @Override
+  public void close() {
+    m_notifier.close();
+  }
+}
@@ -0,0 +1,31 @@
+package frc.quixlib.telemetry;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+
+/**
+ * A SmartDashboard boolean whose topic is resolved once at construction. If the channel's level is
+ * disabled, no topic is created and {@link #set(boolean)} does nothing.
+ */
+public class QuixBooleanPublisher implements AutoCloseable {
+  private final BooleanPublisher m_publisher;
+
+  public QuixBooleanPublisher(final String key, final QuixTelemetry.Level level) {
+    m_publisher =
+        QuixTelemetry.isEnabled(level)
+            ? QuixTelemetry.getDashboardTable().getBooleanTopic(key).publish()
+            : null;
+  }
+
+  public void set(final boolean value) {
+    if (m_publisher != null) {
+      m_publisher.set(value);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (m_publisher != null) {
+      m_publisher.close();
+    }
+  }
+}
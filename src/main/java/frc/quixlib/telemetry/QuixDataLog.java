@@ -0,0 +1,334 @@
+package frc.quixlib.telemetry;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+
+/**
+ * An append-only on-robot log of numeric channels, independent of NetworkTables.
+ *
+ * <p>{@link #log(int, double, long)} copies a sample into a preallocated direct ByteBuffer ring and
+ * returns. It does not allocate, lock or block. If the ring is full, the sample is dropped and
+ * counted. A background thread drains the ring either to a compact binary file through a
+ * FileChannel, e.g. on a USB stick, or into a WPILib DataLog such as DataLogManager's. If writing
+ * the file fails, e.g. because the USB stick was pulled, the log falls back to DataLogManager's
+ * log.
+ *
+ * <p>Binary file format, little-endian:
+ *
+ * <ul>
+ *   <li>Header: the 8 ASCII bytes "QUIXLOG1".
+ *   <li>Channel definition: u16 0xFFFF, u16 channel, u16 name length, UTF-8 name. Always precedes
+ *       the channel's first sample.
+ *   <li>Sample: u16 channel, i64 FPGA timestamp (us), f64 value.
+ * </ul>
+ *
+ * <p>The number of dropped samples is logged on the "QuixDataLog/Dropped Samples" channel.
+ *
+ * <p>Channels can be added from any thread, but samples should only be logged from the main robot
+ * thread.
+ */
+public class QuixDataLog {
+  private static final int kSampleBytes = 18;
+  // A whole number of samples, so that a sample never wraps around the end of the ring.
+  private static final int kBufferBytes = kSampleBytes * (1 << 18); // 4.5 MiB
+  private static final int kDefinitionMarker = 0xFFFF;
+  private static final int kMaxChannels = kDefinitionMarker;
+  private static final long kWriterPeriodMs = 20;
+  private static final long kForcePeriodUs = 1000000; // 1 s
+
+  private static final ByteBuffer m_buffer =
+      ByteBuffer.allocateDirect(kBufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+  // Bytes written to and read from the ring since startup. Only the main thread advances
+  // m_writePos and only the writer thread advances m_readPos.
+  private static volatile long m_writePos = 0;
+  private static volatile long m_readPos = 0;
+  private static volatile long m_droppedCount = 0;
+  private static volatile boolean m_started = false;
+
+  private static final ArrayList<String> m_channelNames = new ArrayList<>();
+  private static final int m_droppedChannel = addChannel("QuixDataLog/Dropped Samples");
+
+  /** Where the writer thread puts samples. Only used from the writer thread. */
+  private interface Sink {
+    void define(int channel, String name) throws IOException;
+
+    /** Writes the samples from the buffer's position to its limit. */
+    void write(ByteBuffer samples) throws IOException;
+
+    void write(int channel, long timestampUs, double value) throws IOException;
+
+    /** Makes everything written so far durable. */
+    void force() throws IOException;
+
+    /** Releases the sink's resources. */
+    void close();
+  }
+
+  private static class FileSink implements Sink {
+    private final FileChannel m_channel;
+    private final ByteBuffer m_scratch =
+        ByteBuffer.allocate(kSampleBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+    private FileSink(final File file) throws IOException {
+      m_channel =
+          FileChannel.open(
+              file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+      writeFully(ByteBuffer.wrap("QUIXLOG1".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Override
+    public void define(final int channel, final String name) throws IOException {
+      final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+      final ByteBuffer definition =
+          ByteBuffer.allocate(6 + nameBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+      definition.putShort((short) kDefinitionMarker);
+      definition.putShort((short) channel);
+      definition.putShort((short) nameBytes.length);
+      definition.put(nameBytes);
+      definition.flip();
+      writeFully(definition);
+    }
+
+    @Override
+    public void write(final ByteBuffer samples) throws IOException {
+      writeFully(samples);
+    }
+
+    @Override
+    public void write(final int channel, final long timestampUs, final double value)
+        throws IOException {
+      m_scratch.clear();
+      m_scratch.putShort((short) channel).putLong(timestampUs).putDouble(value);
+      m_scratch.flip();
+      writeFully(m_scratch);
+    }
+
+    @Override
+    public void force() throws IOException {
+      m_channel.force(false);
+    }
+
+    @Override
+    public void close() {
+      try {
+        m_channel.close();
+      } catch (IOException e) {
+        // The file already failed, so there is nothing left to save.
+      }
+    }
+
+    private void writeFully(final ByteBuffer buffer) throws IOException {
+      while (buffer.hasRemaining()) {
+        m_channel.write(buffer);
+      }
+    }
+  }
+
+  private static class DataLogSink implements Sink {
+    private final DataLog m_log;
+    private int[] m_entries = new int[64];
+
+    private DataLogSink(final DataLog log) {
+      m_log = log;
+    }
+
+    @Override
+    public void define(final int channel, final String name) {
+      if (channel >= m_entries.length) {
+        final int[] entries = new int[Math.max(channel + 1, m_entries.length * 2)];
+        System.arraycopy(m_entries, 0, entries, 0, m_entries.length);
+        m_entries = entries;
+      }
+      m_entries[channel] = m_log.start(name, "double");
+    }
+
+    @Override
+    public void write(final ByteBuffer samples) {
+      while (samples.remaining() >= kSampleBytes) {
+        final int channel = samples.getShort() & 0xFFFF;
+        final long timestampUs = samples.getLong();
+        write(channel, timestampUs, samples.getDouble());
+      }
+    }
+
+    @Override
+    public void write(final int channel, final long timestampUs, final double value) {
+      m_log.appendDouble(m_entries[channel], value, timestampUs);
+    }
+
+    @Override
+    public void force() {
+      m_log.flush();
+    }
+
+    @Override
+    public void close() {
+      // The DataLog belongs to the caller.
+    }
+  }
+
+  private QuixDataLog() {}
+
+  /**
+   * Adds a channel. Channels can be logged to before the log is started.
+   *
+   * @return The channel to pass to {@link #log(int, double, long)}.
+   */
+  public static int addChannel(final String name) {
+    synchronized (m_channelNames) {
+      if (m_channelNames.size() >= kMaxChannels) {
+        throw new IllegalStateException("QuixDataLog: too many channels");
+      }
+      m_channelNames.add(name);
+      return m_channelNames.size() - 1;
+    }
+  }
+
+  /**
+   * Starts writing the log to a new binary file in the directory, e.g. on a USB stick.
+   *
+   * @return False if the log was already started or the file could not be created.
+   */
+  public static synchronized boolean startFile(final File directory) {
+    if (m_started) {
+      return false;
+    }
+    final String name =
+        "quixlog_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".qlog";
+    try {
+      directory.mkdirs();
+      start(new FileSink(new File(directory, name)));
+      return true;
+    } catch (IOException e) {
+      DriverStation.reportError("QuixDataLog: could not create " + name + ": " + e, false);
+      return false;
+    }
+  }
+
+  /**
+   * Starts writing the log into a WPILib DataLog, e.g. DataLogManager.getLog().
+   *
+   * @return False if the log was already started.
+   */
+  public static synchronized boolean startDataLog(final DataLog log) {
+    if (m_started) {
+      return false;
+    }
+    start(new DataLogSink(log));
+    return true;
+  }
+
+  private static void start(final Sink sink) {
+    // Samples logged before starting were never written to the ring.
+    final Thread writer = new Thread(() -> runWriter(sink), "QuixDataLog");
+    writer.setDaemon(true);
+    writer.start();
+    m_started = true;
+  }
+
+  /** Logs a sample stamped with the current FPGA time. */
+  public static void log(final int channel, final double value) {
+    log(channel, value, RobotController.getFPGATime());
+  }
+
+  /**
+   * Logs a sample. Does nothing until the log is started. Should only be called from the main
+   * robot thread.
+   *
+   * @param channel A channel from {@link #addChannel(String)}.
+   * @param value The sample.
+   * @param timestampUs The FPGA time of the sample in microseconds.
+   */
+  public static void log(final int channel, final double value, final long timestampUs) {
+    if (!m_started) {
+      return;
+    }
+    final long writePos = m_writePos;
+    if (writePos + kSampleBytes - m_readPos > kBufferBytes) {
+      m_droppedCount++;
+      return;
+    }
+    final int index = (int) (writePos % kBufferBytes);
+    m_buffer.putShort(index, (short) channel);
+    m_buffer.putLong(index + 2, timestampUs);
+    m_buffer.putDouble(index + 10, value);
+    // Publishes the sample to the writer thread.
+    m_writePos = writePos + kSampleBytes;
+  }
+
+  /** Returns the number of samples dropped because the ring was full. */
+  public static long getDroppedCount() {
+    return m_droppedCount;
+  }
+
+  private static void runWriter(final Sink sink) {
+    final ByteBuffer view = m_buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    int numDefined = 0;
+    long lastDroppedCount = 0;
+    long lastForceUs = RobotController.getFPGATime();
+    try {
+      while (true) {
+        // Read the write position before the channels, so that every sample read below has its
+        // channel defined first.
+        final long writePos = m_writePos;
+        synchronized (m_channelNames) {
+          for (; numDefined < m_channelNames.size(); numDefined++) {
+            sink.define(numDefined, m_channelNames.get(numDefined));
+          }
+        }
+
+        long readPos = m_readPos;
+        while (readPos < writePos) {
+          final int start = (int) (readPos % kBufferBytes);
+          final int end = (int) Math.min(kBufferBytes, start + (writePos - readPos));
+          view.limit(end).position(start);
+          sink.write(view);
+          readPos += end - start;
+          // Frees the space for the main thread.
+          m_readPos = readPos;
+        }
+
+        final long nowUs = RobotController.getFPGATime();
+        final long droppedCount = m_droppedCount;
+        if (droppedCount != lastDroppedCount) {
+          sink.write(m_droppedChannel, nowUs, droppedCount);
+          lastDroppedCount = droppedCount;
+        }
+        if (nowUs - lastForceUs >= kForcePeriodUs) {
+          sink.force();
+          lastForceUs = nowUs;
+        }
+
+        if (m_writePos == writePos) {
+          Thread.sleep(kWriterPeriodMs);
+        }
+      }
+    } catch (IOException e) {
+      DriverStation.reportError(
+          "QuixDataLog: write failed, falling back to DataLogManager: " + e, false);
+      sink.close();
+      fallBackToDataLogManager();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Called from the writer thread when its sink fails. The new writer picks up the samples still in
+  // the ring and defines every channel again in the new sink.
+  private static synchronized void fallBackToDataLogManager() {
+    m_started = false;
+    startDataLog(DataLogManager.getLog());
+  }
+}
@@ -0,0 +1,31 @@
+package frc.quixlib.telemetry;
+
+import edu.wpi.first.networktables.DoublePublisher;
+
+/**
+ * A SmartDashboard number whose topic is resolved once at construction. If the channel's level is
+ * disabled, no topic is created and {@link #set(double)} does nothing.
+ */
+public class QuixDoublePublisher implements AutoCloseable {
+  private final DoublePublisher m_publisher;
+
+  public QuixDoublePublisher(final String key, final QuixTelemetry.Level level) {
+    m_publisher =
+        QuixTelemetry.isEnabled(level)
+            ? QuixTelemetry.getDashboardTable().getDoubleTopic(key).publish()
+            : null;
+  }
+
+  public void set(final double value) {
+    if (m_publisher != null) {
+      m_publisher.set(value);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (m_publisher != null) {
+      m_publisher.close();
+    }
+  }
+}
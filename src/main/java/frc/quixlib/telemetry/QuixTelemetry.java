@@ -0,0 +1,45 @@
+package frc.quixlib.telemetry;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Global telemetry settings.
+ *
+ * <p>Each dashboard channel is assigned a {@link Level} when its publisher is constructed. Channels
+ * above the global level never create a NetworkTables topic, so they cost nothing per loop. The
+ * global level must be set before any publishers are constructed.
+ */
+public class QuixTelemetry {
+  public enum Level {
+    /** Publish nothing. Only valid as a global level. */
+    kNone,
+    /** Channels needed during matches. */
+    kCompetition,
+    /** Channels only needed for debugging and tuning. */
+    kDebug
+  }
+
+  private static Level m_level = Level.kDebug;
+
+  private QuixTelemetry() {}
+
+  /** Sets the global telemetry level. Only affects publishers constructed afterwards. */
+  public static void setLevel(final Level level) {
+    m_level = level;
+  }
+
+  public static Level getLevel() {
+    return m_level;
+  }
+
+  /** Returns whether channels at the given level should be published. */
+  public static boolean isEnabled(final Level level) {
+    return level != Level.kNone && level.ordinal() <= m_level.ordinal();
+  }
+
+  /** Returns the table used by SmartDashboard, so existing dashboard layouts keep working. */
+  static NetworkTable getDashboardTable() {
+    return NetworkTableInstance.getDefault().getTable("SmartDashboard");
+  }
+}
@@ -0,0 +1,73 @@
+package frc.quixlib.telemetry;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+/**
+ * A DoublePublisher that only publishes when the value has changed by more than a deadband since
+ * the last published value, and at most once per period.
+ *
+ * <p>Changes are compared against the last published value, so a change that is suppressed by
+ * the rate limit is still published on the next eligible call.
+ *
+ * <p>The period is shortened by half a robot loop, so that loop jitter doesn't suppress a publish
+ * that is due on this loop. A period of one robot loop publishes every loop.
+ */
+public class ThrottledDoublePublisher implements AutoCloseable {
+  private static final long kJitterToleranceUs = (long) (TimedRobot.kDefaultPeriod * 0.5 * 1e6);
+
+  private final DoublePublisher m_publisher;
+  private final long m_periodUs;
+  private final double m_deadband;
+
+  private boolean m_hasPublished = false;
+  private double m_lastValue = 0.0;
+  private long m_lastPublishUs = 0;
+
+  /**
+   * @param topicName The NetworkTables topic to publish to.
+   * @param periodS The minimum time between publishes in seconds.
+   * @param deadband The minimum change from the last published value to publish again.
+   */
+  public ThrottledDoublePublisher(
+      final String topicName, final double periodS, final double deadband) {
+    this(NetworkTableInstance.getDefault().getDoubleTopic(topicName).publish(), periodS, deadband);
+  }
+
+  public ThrottledDoublePublisher(
+      final DoublePublisher publisher, final double periodS, final double deadband) {
+    m_publisher = publisher;
+    m_periodUs = Math.max((long) (periodS * 1e6) - kJitterToleranceUs, 0);
+    m_deadband = deadband;
+  }
+
+  /** Publishes the value if it has changed beyond the deadband and the period has elapsed. */
+  public void set(final double value) {
+    set(value, RobotController.getFPGATime());
+  }
+
+  /** Same as {@link #set(double)}, but uses the given FPGA time in microseconds. */
+  public void set(final double value, final long nowUs) {
+    if (m_hasPublished) {
+      if (nowUs - m_lastPublishUs < m_periodUs) {
+        return;
+      }
+      // Differences involving NaN never exceed the deadband, so check NaN transitions separately.
+      if (!(Math.abs(value - m_lastValue) > m_deadband)
+          && Double.isNaN(value) == Double.isNaN(m_lastValue)) {
+        return;
+      }
+    }
+    m_publisher.set(value);
+    m_hasPublished = true;
+    m_lastValue = value;
+    m_lastPublishUs = nowUs;
+  }
+
+  @Override
+  public void close() {
+    m_publisher.close();
+  }
+}
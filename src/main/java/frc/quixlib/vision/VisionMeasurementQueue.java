@@ -0,0 +1,119 @@
+package frc.quixlib.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A lock-free single-producer single-consumer ring buffer of vision pose measurements.
+ *
+ * <p>All storage is preallocated in primitive arrays, so neither {@link #offer} nor {@link #poll}
+ * allocates. Only one thread may call {@link #offer} and only one (other) thread may call {@link
+ * #poll}. If the queue is full, new measurements are dropped and counted.
+ */
+public class VisionMeasurementQueue {
+  /** A reusable measurement that {@link #poll} copies into. */
+  public static class Measurement {
+    public double timestampSeconds;
+    public double x; // m
+    public double y; // m
+    public double theta; // rad
+    public double stdDevX; // m
+    public double stdDevY; // m
+    public double stdDevTheta; // rad
+
+    public Pose2d toPose2d() {
+      return new Pose2d(x, y, new Rotation2d(theta));
+    }
+  }
+
+  private final int m_mask;
+  private final double[] m_timestamps;
+  private final double[] m_x;
+  private final double[] m_y;
+  private final double[] m_theta;
+  private final double[] m_stdDevX;
+  private final double[] m_stdDevY;
+  private final double[] m_stdDevTheta;
+
+  // m_head is written only by the consumer, m_tail and m_dropped only by the producer. The volatile
+  // write to m_tail publishes the slot data to the consumer.
+  private volatile long m_head = 0;
+  private volatile long m_tail = 0;
+  private volatile long m_dropped = 0;
+
+  /** @param capacity Maximum number of queued measurements. Rounded up to a power of two. */
+  public VisionMeasurementQueue(final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Queue capacity must be positive: " + capacity);
+    }
+    final int size = roundUpToPowerOfTwo(capacity);
+    m_mask = size - 1;
+    m_timestamps = new double[size];
+    m_x = new double[size];
+    m_y = new double[size];
+    m_theta = new double[size];
+    m_stdDevX = new double[size];
+    m_stdDevY = new double[size];
+    m_stdDevTheta = new double[size];
+  }
+
+  private static int roundUpToPowerOfTwo(final int value) {
+    return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+  }
+
+  public int getCapacity() {
+    return m_mask + 1;
+  }
+
+  /** Returns the number of measurements dropped because the queue was full. */
+  public long getDroppedCount() {
+    return m_dropped;
+  }
+
+  /** Adds a measurement. Producer thread only. Returns false if the queue was full. */
+  public boolean offer(
+      final double timestampSeconds,
+      final double x,
+      final double y,
+      final double theta,
+      final double stdDevX,
+      final double stdDevY,
+      final double stdDevTheta) {
+    final long tail = m_tail;
+    if (tail - m_head > m_mask) {
+      m_dropped++;
+      return false;
+    }
+    final int idx = (int) (tail & m_mask);
+    m_timestamps[idx] = timestampSeconds;
+    m_x[idx] = x;
+    m_y[idx] = y;
+    m_theta[idx] = theta;
+    m_stdDevX[idx] = stdDevX;
+    m_stdDevY[idx] = stdDevY;
+    m_stdDevTheta[idx] = stdDevTheta;
+    m_tail = tail + 1;
+    return true;
+  }
+
+  /**
+   * Copies the oldest measurement into {@code out} and removes it. Consumer thread only. Returns
+   * false if the queue was empty.
+   */
+  public boolean poll(final Measurement out) {
+    final long head = m_head;
+    if (head == m_tail) {
+      return false;
+    }
+    final int idx = (int) (head & m_mask);
+    out.timestampSeconds = m_timestamps[idx];
+    out.x = m_x[idx];
+    out.y = m_y[idx];
+    out.theta = m_theta[idx];
+    out.stdDevX = m_stdDevX[idx];
+    out.stdDevY = m_stdDevY[idx];
+    out.stdDevTheta = m_stdDevTheta[idx];
+    m_head = head + 1;
+    return true;
+  }
+}
@@ -0,0 +1,105 @@
+package frc.robot;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.PathPoint;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Displays the path of the selected PathPlanner auto on a Field2d.
+ *
+ * <p>Every auto is parsed once on a background thread at construction, and the blue and red
+ * (mirrored) pose lists are cached. {@link #update} only republishes to the field when the
+ * selected (auto name, alliance) pair actually changes.
+ */
+public class AutoPreview {
+  private static final double kFieldLengthMeters = 16.541;
+
+  private final Field2d m_field;
+  private final Map<String, List<Pose2d>> m_bluePoses = new ConcurrentHashMap<>();
+  private final Map<String, List<Pose2d>> m_redPoses = new ConcurrentHashMap<>();
+
+  private boolean m_isDisplayed = false;
+  private String m_displayedAutoName = null;
+  private Alliance m_displayedAlliance = null;
+
+  public AutoPreview(final Field2d field) {
+    m_field = field;
+
+    final Thread loader = new Thread(this::loadAllAutos, "AutoPreview Loader");
+    loader.setDaemon(true);
+    loader.start();
+  }
+
+  private void loadAllAutos() {
+    for (final String autoName : AutoBuilder.getAllAutoNames()) {
+      try {
+        final List<Pose2d> bluePoses = new ArrayList<>();
+        final List<Pose2d> redPoses = new ArrayList<>();
+        for (final PathPlannerPath path : PathPlannerAuto.getPathGroupFromAutoFile(autoName)) {
+          for (final PathPoint point : path.getAllPathPoints()) {
+            final double x = point.position.getX();
+            final double y = point.position.getY();
+            bluePoses.add(new Pose2d(x, y, Rotation2d.kZero));
+            redPoses.add(new Pose2d(kFieldLengthMeters - x, y, Rotation2d.kZero));
+          }
+        }
+        m_bluePoses.put(autoName, bluePoses);
+        m_redPoses.put(autoName, redPoses);
+      } catch (Exception e) {
+        DriverStation.reportWarning("AutoPreview: Failed to load auto " + autoName, false);
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Shows the path for the given auto and alliance if it differs from what is currently shown. If
+   * the auto has not been loaded yet, this tries again on the next call. Mirrors the path for the
+   * red alliance, and falls back to the blue path if no alliance is present.
+   */
+  public void update(final String autoName, final Optional<Alliance> alliance) {
+    final Alliance allianceOrNull = alliance.orElse(null);
+    if (m_isDisplayed
+        && Objects.equals(autoName, m_displayedAutoName)
+        && allianceOrNull == m_displayedAlliance) {
+      return;
+    }
+
+    final List<Pose2d> poses =
+        (allianceOrNull == Alliance.Red ? m_redPoses : m_bluePoses).get(autoName);
+    if (poses == null) {
+      return;
+    }
+    m_field.getObject("path").setPoses(poses);
+    m_isDisplayed = true;
+    m_displayedAutoName = autoName;
+    m_displayedAlliance = allianceOrNull;
+  }
+
+  /** Forces the path to be republished on the next {@link #update}. */
+  public void invalidate() {
+    m_isDisplayed = false;
+  }
+
+  /** Clears the displayed path. */
+  public void clear() {
+    if (m_isDisplayed || m_displayedAutoName != null) {
+      m_field.getObject("path").setPoses();
+      m_isDisplayed = false;
+      m_displayedAutoName = null;
+      m_displayedAlliance = null;
+    }
+  }
+}
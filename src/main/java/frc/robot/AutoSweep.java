@@ -0,0 +1,333 @@
+package frc.robot;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Monte-Carlo sweep of autos in headless simulation.
+ *
+ * <p>Each trial runs one auto in its own JVM with {@link HeadlessSimRunner}, since the HAL, the
+ * CommandScheduler and the mechanism sims are per-process singletons. Each trial randomizes the
+ * {@link SimParameters} below (the PathPlanner controller gains, the simulated camera noise and the
+ * mechanism constraints) around their defaults. The sweep reports, per auto, the distribution of
+ * completion time and of the error between the final pose and the end of the auto's last path,
+ * along with the number of trials that timed out and of trials whose JVM failed.
+ *
+ * <p>Trials run at {@link #kTrialSpeedup} times real time (see {@link HeadlessSimRunner} for why
+ * they can't run unpaced), so a paced trial mostly waits on the wall clock and by default one trial
+ * runs per core. An overloaded host would make the trials late and skew their results.
+ *
+ * <p>Usage: {@code AutoSweep [--jobs <parallel trials>] [--project-dir <dir>] <trials per auto>
+ * [seed] [results.csv] [auto ...]}. The project dir defaults to the one this class was built in,
+ * and trials run in it so that they find its deploy directory. Autos default to every auto in its
+ * deploy/pathplanner/autos. Needs the WPILib and Phoenix simulation native libraries on the library
+ * path, which the trial JVMs inherit.
+ */
+public class AutoSweep {
+  private static final double kAutoTimeoutS = 15.0;
+  private static final double kTrialSpeedup = 10.0;
+  private static final String kResultPrefix = "AUTO_SWEEP_RESULT";
+  private static final String kUsage =
+      "Usage: AutoSweep [--jobs <parallel trials>] [--project-dir <dir>] <trials per auto> [seed]"
+          + " [results.csv] [auto ...]";
+
+  /** A parameter varied uniformly within +/- a fraction of its default. */
+  private static class Parameter {
+    private final String m_name;
+    private final double m_default;
+    private final double m_spread;
+
+    private Parameter(String name, double spread) {
+      m_name = name;
+      m_default = new SimParameters().get(name);
+      m_spread = spread;
+    }
+
+    private double sample(Random random) {
+      return m_default * (1.0 + m_spread * (2.0 * random.nextDouble() - 1.0));
+    }
+  }
+
+  private static final Parameter[] kParameters = {
+    new Parameter(SimParameters.kAutoTranslationKp, 0.5),
+    new Parameter(SimParameters.kAutoRotationKp, 0.5),
+    new Parameter(SimParameters.kCalibErrorAvgPx, 1.0),
+    new Parameter(SimParameters.kCalibErrorStdDevPx, 1.0),
+    new Parameter(SimParameters.kLatencyStdDevMs, 1.0),
+    new Parameter(SimParameters.kElevatorMaxAcceleration, 0.25),
+    new Parameter(SimParameters.kArmMaxAcceleration, 0.25),
+    new Parameter(SimParameters.kArmMaxJerk, 0.25),
+    new Parameter(SimParameters.kArmSlowMaxAcceleration, 0.25),
+    new Parameter(SimParameters.kArmSlowMaxJerk, 0.25),
+  };
+
+  private static class Trial {
+    private final String m_auto;
+    private final Map<String, Double> m_parameters = new LinkedHashMap<>();
+    private double m_completionTimeS = Double.NaN;
+    private double m_translationErrorM = Double.NaN;
+    private double m_rotationErrorRad = Double.NaN;
+    // Whether the trial JVM failed to produce a result, as opposed to the auto not finishing.
+    private boolean m_failed = false;
+
+    private Trial(String auto, Random random) {
+      m_auto = auto;
+      for (Parameter parameter : kParameters) {
+        m_parameters.put(parameter.m_name, parameter.sample(random));
+      }
+    }
+  }
+
+  public static void main(String... args) throws Exception {
+    if (args.length > 0 && args[0].equals("--trial")) {
+      runTrial(args[1], Arrays.copyOfRange(args, 2, args.length));
+      return;
+    }
+    int threads = Runtime.getRuntime().availableProcessors();
+    File projectDir = null;
+    while (args.length > 1 && args[0].startsWith("--")) {
+      if (args[0].equals("--jobs")) {
+        threads = Integer.parseInt(args[1]);
+      } else if (args[0].equals("--project-dir")) {
+        projectDir = new File(args[1]);
+      } else {
+        break;
+      }
+      args = Arrays.copyOfRange(args, 2, args.length);
+    }
+    if (projectDir == null) {
+      projectDir = findProjectDir();
+    }
+    if (args.length < 1 || threads < 1 || projectDir == null) {
+      System.err.println(kUsage);
+      System.exit(1);
+    }
+    final int trialsPerAuto = Integer.parseInt(args[0]);
+    final Random random = new Random(args.length > 1 ? Long.parseLong(args[1]) : 0);
+    final File csv = args.length > 2 ? new File(args[2]) : null;
+    final List<String> autos =
+        args.length > 3 ? Arrays.asList(args).subList(3, args.length) : findAutos(projectDir);
+
+    final List<Trial> trials = new ArrayList<>();
+    for (String auto : autos) {
+      for (int i = 0; i < trialsPerAuto; i++) {
+        trials.add(new Trial(auto, random));
+      }
+    }
+
+    System.out.printf("Running %d trials, %d at a time%n", trials.size(), threads);
+    final long startNs = System.nanoTime();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final List<Future<?>> futures = new ArrayList<>();
+    final File trialDir = projectDir;
+    for (Trial trial : trials) {
+      futures.add(executor.submit(() -> launchTrial(trial, trialDir)));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    System.out.printf("Done in %.1f s%n", (System.nanoTime() - startNs) * 1e-9);
+
+    for (String auto : autos) {
+      report(auto, trials);
+    }
+    if (csv != null) {
+      writeCsv(csv, trials);
+    }
+  }
+
+  // The nearest directory above the build output of this class that has a deploy directory, or
+  // null.
+  private static File findProjectDir() {
+    File dir;
+    try {
+      dir = new File(AutoSweep.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    } catch (Exception e) {
+      return null;
+    }
+    for (; dir != null; dir = dir.getParentFile()) {
+      if (new File(dir, "src/main/deploy").isDirectory()) {
+        return dir;
+      }
+    }
+    return null;
+  }
+
+  private static List<String> findAutos(File projectDir) {
+    final File[] files = new File(projectDir, "src/main/deploy/pathplanner/autos").listFiles();
+    final List<String> autos = new ArrayList<>();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().endsWith(".auto")) {
+          autos.add(file.getName().substring(0, file.getName().length() - ".auto".length()));
+        }
+      }
+    }
+    autos.sort(null);
+    return autos;
+  }
+
+  // Runs one trial in a child JVM and parses its result line.
+  private static void launchTrial(Trial trial, File projectDir) {
+    final List<String> command = new ArrayList<>();
+    command.add(ProcessHandle.current().info().command().orElse("java"));
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add("-Djava.library.path=" + System.getProperty("java.library.path"));
+    command.add(AutoSweep.class.getName());
+    command.add("--trial");
+    command.add(trial.m_auto);
+    for (Map.Entry<String, Double> parameter : trial.m_parameters.entrySet()) {
+      command.add(parameter.getKey() + "=" + parameter.getValue());
+    }
+
+    boolean gotResult = false;
+    try {
+      final Process process =
+          new ProcessBuilder(command).directory(projectDir).redirectErrorStream(true).start();
+      try (BufferedReader reader =
+          new BufferedReader(
+              new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.startsWith(kResultPrefix)) {
+            final String[] fields = line.split(" ");
+            trial.m_completionTimeS = Double.parseDouble(fields[1]);
+            trial.m_translationErrorM = Double.parseDouble(fields[2]);
+            trial.m_rotationErrorRad = Double.parseDouble(fields[3]);
+            gotResult = true;
+          }
+        }
+      }
+      final int exitValue = process.waitFor();
+      if (exitValue != 0 || !gotResult) {
+        System.err.println(
+            "AutoSweep: trial of " + trial.m_auto + " failed with exit value " + exitValue);
+        trial.m_failed = true;
+      }
+    } catch (IOException | InterruptedException e) {
+      System.err.println("AutoSweep: trial of " + trial.m_auto + " failed: " + e);
+      trial.m_failed = true;
+    }
+  }
+
+  // Runs in the child JVM. Each parameter is a name=value override.
+  private static void runTrial(String auto, String[] parameters) throws Exception {
+    final SimParameters simParameters = new SimParameters();
+    for (String parameter : parameters) {
+      final int split = parameter.indexOf('=');
+      simParameters.set(
+          parameter.substring(0, split), Double.parseDouble(parameter.substring(split + 1)));
+    }
+    final Pose2d goal = HeadlessSimRunner.getAutoEndPose(auto);
+
+    final double completionTimeS;
+    final Pose2d pose;
+    try (HeadlessSimRunner sim = new HeadlessSimRunner(kTrialSpeedup, simParameters)) {
+      sim.selectAuto(auto);
+      completionTimeS = sim.runAutoUntilDone(kAutoTimeoutS);
+      pose = sim.getPose();
+    }
+    System.out.println(
+        String.format(
+            Locale.ROOT,
+            "%s %f %f %f",
+            kResultPrefix,
+            completionTimeS,
+            pose.getTranslation().getDistance(goal.getTranslation()),
+            Math.abs(pose.getRotation().minus(goal.getRotation()).getRadians())));
+    System.exit(0);
+  }
+
+  private static void report(String auto, List<Trial> trials) {
+    final List<Double> times = new ArrayList<>();
+    final List<Double> translationErrors = new ArrayList<>();
+    final List<Double> rotationErrors = new ArrayList<>();
+    int count = 0;
+    int failed = 0;
+    for (Trial trial : trials) {
+      if (!trial.m_auto.equals(auto)) {
+        continue;
+      }
+      count++;
+      if (trial.m_failed) {
+        failed++;
+        continue;
+      }
+      if (!Double.isNaN(trial.m_completionTimeS)) {
+        times.add(trial.m_completionTimeS);
+      }
+      if (!Double.isNaN(trial.m_translationErrorM)) {
+        translationErrors.add(trial.m_translationErrorM);
+        rotationErrors.add(Math.toDegrees(trial.m_rotationErrorRad));
+      }
+    }
+    System.out.printf(
+        "%s: %d/%d trials finished, %d timed out, %d failed%n",
+        auto, times.size(), count, count - failed - times.size(), failed);
+    printDistribution("  completion time (s)", times);
+    printDistribution("  final position error (m)", translationErrors);
+    printDistribution("  final heading error (deg)", rotationErrors);
+  }
+
+  private static void printDistribution(String label, List<Double> values) {
+    if (values.isEmpty()) {
+      System.out.printf("%s: no data%n", label);
+      return;
+    }
+    values.sort(null);
+    System.out.printf(
+        "%s: min %.3f  p50 %.3f  p90 %.3f  max %.3f%n",
+        label,
+        values.get(0),
+        percentile(values, 0.5),
+        percentile(values, 0.9),
+        values.get(values.size() - 1));
+  }
+
+  // Nearest-rank percentile of sorted values.
+  private static double percentile(List<Double> sorted, double p) {
+    final int rank = (int) Math.ceil(p * sorted.size());
+    return sorted.get(Math.max(rank - 1, 0));
+  }
+
+  private static void writeCsv(File file, List<Trial> trials) throws IOException {
+    try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+      writer.print("auto,failed,completion_time_s,translation_error_m,rotation_error_rad");
+      for (Parameter parameter : kParameters) {
+        writer.print("," + parameter.m_name);
+      }
+      writer.println();
+      for (Trial trial : trials) {
+        writer.printf(
+            Locale.ROOT,
+            "%s,%b,%f,%f,%f",
+            trial.m_auto,
+            trial.m_failed,
+            trial.m_completionTimeS,
+            trial.m_translationErrorM,
+            trial.m_rotationErrorRad);
+        for (double value : trial.m_parameters.values()) {
+          writer.printf(Locale.ROOT, ",%f", value);
+        }
+        writer.println();
+      }
+    }
+  }
+}
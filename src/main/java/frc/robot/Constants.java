@@ -46,6 +46,9 @@ import edu.wpi.first.math.util.Units;
 import frc.quixlib.devices.CANDeviceID;
 import frc.quixlib.motorcontrol.MechanismRatio;
 import frc.quixlib.motorcontrol.PIDConfig;
+import frc.quixlib.planning.QuixCoordinatedProfile;
+import frc.quixlib.planning.QuixSCurveProfile;
+import frc.quixlib.telemetry.QuixTelemetry;
 import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
 
 public class Constants {
@@ -53,6 +56,10 @@ public class Constants {
     public static final String kCanivoreName = "canivore";
     public static final double g = 9.81; // m/s/s
     public static final double defaultPeriodSecs = 0.02; // s
+    // Dashboard channels above this level are never published. Use kCompetition for matches.
+    public static final QuixTelemetry.Level kTelemetryLevel = QuixTelemetry.Level.kDebug;
+    // QuixDataLog writes here when a USB stick is mounted at /u.
+    public static final String kUsbLogPath = "/u/logs";
 
 
 
@@ -62,6 +69,10 @@ public class Constants {
         public static final Transform3d kRobotToCam =
                 new Transform3d(new Translation3d(0.5, 0.0, 0.2), new Rotation3d(0, Math.toRadians(-15), 0));
 
+        // Every camera used for pose estimation, and the matching robot-to-camera transforms.
+        public static final String[] kCameraNames = {kCameraName};
+        public static final Transform3d[] kRobotToCams = {kRobotToCam};
+
         // The layout of the AprilTags on the field
         public static final AprilTagFieldLayout kTagLayout =
                 AprilTagFields.kDefaultField.loadAprilTagLayoutField();
@@ -70,6 +81,16 @@ public class Constants {
         // (Fake values. Experiment and determine estimation noise on an actual robot.)
         public static final Matrix<N3, N1> kSingleTagStdDevs = VecBuilder.fill(4, 4, 8);
         public static final Matrix<N3, N1> kMultiTagStdDevs = VecBuilder.fill(0.5, 0.5, 1);
+
+        // How often the vision thread checks for new camera frames
+        public static final double kPollPeriodS = 0.005;
+        // Measurements buffered between the vision thread and the main loop
+        public static final int kMeasurementQueueSize = 32;
+
+        // Simulated camera noise
+        public static final double kSimCalibErrorAvgPx = 0.35;
+        public static final double kSimCalibErrorStdDevPx = 0.10;
+        public static final double kSimLatencyStdDevMs = 15.0;
     }
 
     public static class Drive { //Drive Constants that are not in TunerConstants / Gnenerated
@@ -82,6 +103,10 @@ public class Constants {
         public static final double PRotation = 3;
         public static final double IRotation = 0;
         public static final double DRotation = 0.03;
+
+        // PathPlanner holonomic controller P gains
+        public static final double autoTranslationKp = 10.0;
+        public static final double autoRotationKp = 7.0;
         
         // 0.0-1.0 of the max speed
         public static final double MaxSpeedPercentage = 1.0; // Default 1.0
@@ -198,10 +223,12 @@ public class Constants {
     public static final boolean upperMotorInvert = false;
 
     public static final ArmFeedforward armFeedForward = new ArmFeedforward(0.0, 0.3, 0.6);
-    public static final Constraints armTrapConstraints =
-        new Constraints(12.5, 80.0); // rad/s and rad/s^2
-    public static final Constraints armSlowTrapConstraints =
-        new Constraints(6.0, 80.0); // rad/s and rad/s^2
+    // Jerk limiting allows a higher peak acceleration than a trapezoid profile without exciting
+    // the arm.
+    public static final QuixSCurveProfile.Constraints armProfileConstraints =
+        new QuixSCurveProfile.Constraints(12.5, 120.0, 2400.0); // rad/s, rad/s^2 and rad/s^3
+    public static final QuixSCurveProfile.Constraints armSlowProfileConstraints =
+        new QuixSCurveProfile.Constraints(6.0, 120.0, 2400.0); // rad/s, rad/s^2 and rad/s^3
     public static final int armPositionPIDSlot = 0;
     public static final PIDConfig armPositionPIDConfig = new PIDConfig(3.0, 0.0, 0.01);
 
@@ -231,6 +258,19 @@ public class Constants {
     public static final double startingAngle = maxAngle + bootAbsPositionOffset;
     public static final double cgOffset = Units.degreesToRadians(30.0);
 
+    // Regions of (elevator height, arm angle) that coordinated moves avoid.
+    // TODO: measure real values. This zone is a placeholder and does not yet guard the real robot.
+    // Set elevatorKeepOutZonesMeasured once it does, which lets autos use coordinated moves.
+    public static final boolean elevatorKeepOutZonesMeasured = false;
+    public static final QuixCoordinatedProfile.KeepOutZone[] elevatorKeepOutZones = {
+      // Arm pointed down into the frame with the carriage low.
+      new QuixCoordinatedProfile.KeepOutZone(
+          Elevator.minHeight - 0.1,
+          Units.inchesToMeters(10.0),
+          minAngle - 0.1,
+          Units.degreesToRadians(-90.0)),
+    };
+
     public static final double climbAngle = Units.degreesToRadians(-45.0); // rads (trap position)
     public static final double trapAngle = Units.degreesToRadians(-128.0); // rads (trap position)
 
@@ -246,6 +286,31 @@ public class Constants {
     public static final double launchVelocityTolerance = 50.0; // rads/s
     public static final double autoLaunchStartVelocity = 300.0; // rads/s
 
+    // Shot map rows: {distance (m), arm angle (rads), launch velocity (rads/s), time of flight (s)}
+    // Output indices skip the distance key. EleArmSubsystem owns the lookup table.
+    // TODO: Use real values
+    public static final int shotMapArmAngleIndex = 0;
+    public static final int shotMapLaunchVelocityIndex = 1;
+    public static final int shotMapTimeOfFlightIndex = 2;
+    public static final double[][] shotMapRows = {
+      {1.3, subwooferLaunchAngle, 450.0, 0.08},
+      {2.0, Units.degreesToRadians(43), 500.0, 0.12},
+      {3.0, podiumLaunchAngle, launchVelocity, 0.17},
+      {4.0, Units.degreesToRadians(24), launchVelocity, 0.22},
+      {5.0, Units.degreesToRadians(20), launchVelocity, 0.28},
+    };
+
+    // Shoot-on-the-move grid over (distance, radial velocity) with the same outputs as shotMap.
+    // Generated offline by ShotMapGenerator (./gradlew generateShotMap) into the deploy directory.
+    public static final String shotGridFile = "shotmap.bin";
+    public static final double speakerTargetHeight = 2.045; // m
+    public static final double shotGridMinDistance = 1.0; // m
+    public static final double shotGridDistanceStep = 0.1; // m
+    public static final int shotGridDistanceCount = 51;
+    public static final double shotGridMinRadialVelocity = -3.0; // m/s, + is away from target
+    public static final double shotGridRadialVelocityStep = 0.25; // m/s
+    public static final int shotGridRadialVelocityCount = 25;
+
     public static final double scoreAmpArmAngle = Units.degreesToRadians(-105.0); // rads
     public static final double scoreAmpArmAngleTolerance = Units.degreesToRadians(2); // rads
 
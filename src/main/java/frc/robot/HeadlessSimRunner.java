@@ -0,0 +1,252 @@
+package frc.robot;
+
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.subsystems.CommandSwerveDrivetrain;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Runs the whole robot headless in simulated time, at a chosen multiple of real time.
+ *
+ * <p>Robot time is paused and advanced with {@link SimHooks#stepTiming}, which runs the robot loop
+ * and any other WPILib Notifiers that come due, so the robot loop and the 1 kHz mechanism sim loops
+ * run deterministically. The swerve sim is stepped in lockstep every {@link
+ * CommandSwerveDrivetrain#kSimLoopPeriod} instead of by its wall-clock Notifier.
+ *
+ * <p>Phoenix 6 simulates device firmware (e.g. the TalonFX closed loops of the swerve modules) and
+ * the swerve odometry thread in wall-clock time, and has no way to pause or step it. So no mode is
+ * both deterministic and faster than real time. Instead, each step waits until the wall clock has
+ * caught up with simulated time divided by the speedup. The firmware and odometry then update
+ * 1/speedup as often per simulated second as on the robot, independent of host speed, as long as
+ * the host keeps up. A speedup of 1 matches the robot. Larger speedups run faster at the cost of
+ * coarser firmware loops, so results are reproducible only within tolerances, which grow with the
+ * speedup. Background threads (vision, path warmup) are not stepped.
+ *
+ * <p>Tuning values can be overridden with {@link SimParameters}, which are passed down to the
+ * drivetrain, the vision sim and the subsystems when the robot is constructed.
+ *
+ * <p>Only one runner can exist per process, since the HAL, the CommandScheduler and the mechanism
+ * sims are singletons.
+ *
+ * <pre><code>
+ * try (HeadlessSimRunner sim = new HeadlessSimRunner(10.0)) {
+ *   sim.selectAuto("Tests");
+ *   sim.runAuto(15.0);
+ *   Pose2d pose = sim.getPose();
+ * }
+ * </code></pre>
+ */
+public class HeadlessSimRunner implements AutoCloseable {
+  private static final double kStepPeriod = CommandSwerveDrivetrain.kSimLoopPeriod;
+
+  private final double m_speedup;
+  private final Robot m_robot;
+  private final Thread m_robotThread;
+  private final long m_startNs;
+  private double m_time = 0.0;
+
+  /**
+   * @param speedup The most simulated seconds to run per second of wall-clock time. 1 matches the
+   *     Phoenix firmware update rate of the robot. Double.POSITIVE_INFINITY doesn't pace at all,
+   *     which makes results depend on host speed and load.
+   */
+  public HeadlessSimRunner(final double speedup) {
+    this(speedup, new SimParameters());
+  }
+
+  /**
+   * @param speedup See {@link #HeadlessSimRunner(double)}.
+   * @param parameters Tuning overrides for the robot.
+   */
+  public HeadlessSimRunner(final double speedup, final SimParameters parameters) {
+    m_speedup = speedup;
+    HAL.initialize(500, 0);
+    SimHooks.pauseTiming();
+    SimHooks.restartTiming();
+    DriverStationSim.resetData();
+    DriverStationSim.setDsAttached(true);
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+    DriverStationSim.notifyNewData();
+
+    // Must be set before the drivetrain is constructed.
+    CommandSwerveDrivetrain.setExternalSimStepping(true);
+    m_robot = new Robot(parameters);
+    // Serve nothing, so that several runners can run side by side in separate processes.
+    NetworkTableInstance.getDefault().stopServer();
+    m_robotThread = new Thread(m_robot::startCompetition, "HeadlessSimRunner");
+    m_robotThread.setDaemon(true);
+    m_robotThread.start();
+    // Wait for the robot loop's Notifier to start.
+    SimHooks.stepTiming(0.0);
+    m_startNs = System.nanoTime();
+  }
+
+  public Robot getRobot() {
+    return m_robot;
+  }
+
+  /** Returns the simulated time since the runner started, in seconds. */
+  public double getTime() {
+    return m_time;
+  }
+
+  public Pose2d getPose() {
+    return m_robot.getRobotContainer().drivetrain.getState().Pose;
+  }
+
+  /** Selects an auto in the auto chooser by name. Takes effect on the next robot loop. */
+  public void selectAuto(String name) {
+    NetworkTableInstance.getDefault()
+        .getTable("SmartDashboard")
+        .getSubTable("Auto")
+        .getEntry("selected")
+        .setString(name);
+  }
+
+  public void disable() {
+    DriverStationSim.setEnabled(false);
+    DriverStationSim.notifyNewData();
+  }
+
+  public void enableAutonomous() {
+    DriverStationSim.setAutonomous(true);
+    DriverStationSim.setTest(false);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+  }
+
+  public void enableTeleop() {
+    DriverStationSim.setAutonomous(false);
+    DriverStationSim.setTest(false);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+  }
+
+  /** Advances simulated time, rounded to a whole number of swerve sim periods. */
+  public void step(double seconds) {
+    final int steps = (int) Math.round(seconds / kStepPeriod);
+    for (int i = 0; i < steps; i++) {
+      stepOnce();
+    }
+  }
+
+  /**
+   * Advances simulated time until the condition is true, checking after every swerve sim period.
+   *
+   * @return False if the timeout elapsed first.
+   */
+  public boolean stepUntil(BooleanSupplier condition, double timeoutSeconds) {
+    final double endTime = m_time + timeoutSeconds;
+    while (!condition.getAsBoolean()) {
+      if (m_time >= endTime) {
+        return false;
+      }
+      stepOnce();
+    }
+    return true;
+  }
+
+  /**
+   * Runs the selected auto for the given duration from a short disabled period, then disables.
+   */
+  public void runAuto(double seconds) {
+    disable();
+    step(TimedRobot.kDefaultPeriod * 5);
+    enableAutonomous();
+    step(seconds);
+    disable();
+    step(TimedRobot.kDefaultPeriod);
+  }
+
+  /**
+   * Runs the selected auto from a short disabled period until its command finishes, then disables.
+   *
+   * @return The time the auto took, or NaN if it did not finish within the timeout.
+   */
+  public double runAutoUntilDone(double timeoutSeconds) {
+    disable();
+    step(TimedRobot.kDefaultPeriod * 5);
+    enableAutonomous();
+    final double startTime = m_time;
+    // Let autonomousInit() schedule the command.
+    step(TimedRobot.kDefaultPeriod);
+    final boolean finished =
+        stepUntil(
+            () -> {
+              final Command auto = m_robot.getAutonomousCommand();
+              return auto == null || !auto.isScheduled();
+            },
+            timeoutSeconds);
+    final double elapsed = m_time - startTime;
+    disable();
+    step(TimedRobot.kDefaultPeriod);
+    return finished ? elapsed : Double.NaN;
+  }
+
+  private void stepOnce() {
+    m_robot.getRobotContainer().drivetrain.stepSimState(kStepPeriod);
+    SimHooks.stepTiming(kStepPeriod);
+    m_time += kStepPeriod;
+
+    // Let the wall-clock Phoenix firmware and odometry catch up.
+    if (Double.isInfinite(m_speedup)) {
+      return;
+    }
+    final long wakeNs = m_startNs + (long) (m_time / m_speedup * 1e9);
+    long waitNs;
+    while ((waitNs = wakeNs - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(waitNs);
+    }
+  }
+
+  /**
+   * Returns where an auto should end: the end of its last path, with the path's goal rotation.
+   * Does not flip for the red alliance.
+   */
+  public static Pose2d getAutoEndPose(String autoName) throws IOException, ParseException {
+    final List<PathPlannerPath> paths = PathPlannerAuto.getPathGroupFromAutoFile(autoName);
+    final PathPlannerPath lastPath = paths.get(paths.size() - 1);
+    final List<Pose2d> poses = lastPath.getPathPoses();
+    return new Pose2d(
+        poses.get(poses.size() - 1).getTranslation(), lastPath.getGoalEndState().rotation());
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    m_robot.endCompetition();
+    m_robotThread.join();
+    m_robot.close();
+    SimHooks.resumeTiming();
+  }
+
+  /**
+   * Runs a 15 s auto without pacing and reports how long it took. Takes the auto name as an
+   * optional argument. Needs the WPILib and Phoenix simulation native libraries on the library
+   * path.
+   */
+  public static void main(String... args) throws InterruptedException {
+    try (HeadlessSimRunner sim = new HeadlessSimRunner(Double.POSITIVE_INFINITY)) {
+      if (args.length > 0) {
+        sim.selectAuto(args[0]);
+      }
+      final long startNs = System.nanoTime();
+      sim.runAuto(15.0);
+      final double elapsedS = (System.nanoTime() - startNs) * 1e-9;
+      System.out.printf(
+          "Simulated %.2f s in %.3f s wall time, final pose %s%n",
+          sim.getTime(), elapsedS, sim.getPose());
+    }
+  }
+}
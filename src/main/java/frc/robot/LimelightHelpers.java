@@ -6,6 +6,8 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -13,14 +15,19 @@ import java.util.concurrent.ConcurrentHashMap;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonFormat.Shape;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.wpi.first.networktables.DoubleArrayEntry;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
 import edu.wpi.first.networktables.TimestampedDoubleArray;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
@@ -478,6 +485,382 @@ public class LimelightHelpers {
 
     }
 
+    /**
+     * A reusable, mutable botpose sample decoded by {@link BotPoseReader}. The same instance is
+     * overwritten for every sample, so copy out anything that must outlive the callback.
+     */
+    public static class BotPoseSample {
+        public static final int MAX_FIDUCIALS = 32;
+
+        public double x;
+        public double y;
+        public double yawDegrees;
+        public double timestampSeconds;
+        public double latency;
+        public int tagCount;
+        public double tagSpan;
+        public double avgTagDist;
+        public double avgTagArea;
+
+        /** Number of valid entries in the fiducial arrays. May be less than tagCount. */
+        public int numFiducials;
+        public final int[] fiducialIds = new int[MAX_FIDUCIALS];
+        public final double[] fiducialTxnc = new double[MAX_FIDUCIALS];
+        public final double[] fiducialTync = new double[MAX_FIDUCIALS];
+        public final double[] fiducialTa = new double[MAX_FIDUCIALS];
+        public final double[] fiducialDistToCamera = new double[MAX_FIDUCIALS];
+        public final double[] fiducialDistToRobot = new double[MAX_FIDUCIALS];
+        public final double[] fiducialAmbiguity = new double[MAX_FIDUCIALS];
+
+        /** Allocates a Pose2d for this sample. */
+        public Pose2d toPose2d() {
+            return new Pose2d(x, y, Rotation2d.fromDegrees(yawDegrees));
+        }
+    }
+
+    @FunctionalInterface
+    public interface BotPoseSampleConsumer {
+        void accept(BotPoseSample sample);
+    }
+
+    /**
+     * Reads every botpose sample published since the last call, without building Pose2d,
+     * RawFiducial or PoseEstimate objects and without touching the JSON dump.
+     *
+     * <p>Subscribes once with a queue so that no samples are missed even when the Limelight
+     * publishes faster than the robot loop. Each queued sample is decoded into a single reusable
+     * {@link BotPoseSample}. NetworkTables still allocates an array for each queued sample. Not
+     * thread-safe; use one reader per thread.
+     */
+    public static class BotPoseReader implements AutoCloseable {
+        private static final int QUEUE_DEPTH = 20;
+
+        private final DoubleArraySubscriber subscriber;
+        private final BotPoseSample sample = new BotPoseSample();
+
+        /**
+         * @param limelightName Name of the Limelight camera ("" for default)
+         * @param entryName The botpose entry, e.g. "botpose_wpiblue" or "botpose_orb_wpiblue"
+         */
+        public BotPoseReader(String limelightName, String entryName) {
+            subscriber = getLimelightNTTable(limelightName)
+                .getDoubleArrayTopic(entryName)
+                .subscribe(new double[0], PubSubOption.keepDuplicates(true), PubSubOption.pollStorage(QUEUE_DEPTH));
+        }
+
+        /**
+         * Decodes every new sample into the shared {@link BotPoseSample} and passes it to the
+         * consumer, oldest first. Samples without tags, which the Limelight publishes as zero-filled
+         * arrays with a tag count of 0, are skipped.
+         *
+         * @return The number of samples passed to the consumer.
+         */
+        public int readQueue(BotPoseSampleConsumer consumer) {
+            int count = 0;
+            for (TimestampedDoubleArray value : subscriber.readQueue()) {
+                if (decode(value.value, value.timestamp, sample)) {
+                    consumer.accept(sample);
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+            subscriber.close();
+        }
+    }
+
+    /** Creates a queued reader for the blue-origin MegaTag1 botpose. */
+    public static BotPoseReader getBotPoseReader_wpiBlue(String limelightName) {
+        return new BotPoseReader(limelightName, "botpose_wpiblue");
+    }
+
+    /** Creates a queued reader for the blue-origin MegaTag2 botpose. */
+    public static BotPoseReader getBotPoseReader_wpiBlue_MegaTag2(String limelightName) {
+        return new BotPoseReader(limelightName, "botpose_orb_wpiblue");
+    }
+
+    // Decodes a botpose array in the same layout as getBotPoseEstimate(). Returns false if the
+    // array is too short to hold a tag count or has no tags.
+    private static boolean decode(double[] poseArray, long timestampMicros, BotPoseSample out) {
+        if (poseArray.length < 8 || (int) poseArray[7] == 0) {
+            return false;
+        }
+        out.x = poseArray[0];
+        out.y = poseArray[1];
+        out.yawDegrees = poseArray[5];
+        out.latency = extractArrayEntry(poseArray, 6);
+        out.tagCount = (int) extractArrayEntry(poseArray, 7);
+        out.tagSpan = extractArrayEntry(poseArray, 8);
+        out.avgTagDist = extractArrayEntry(poseArray, 9);
+        out.avgTagArea = extractArrayEntry(poseArray, 10);
+        // Convert server timestamp from microseconds to seconds and adjust for latency
+        out.timestampSeconds = (timestampMicros / 1000000.0) - (out.latency / 1000.0);
+
+        int valsPerFiducial = 7;
+        out.numFiducials = 0;
+        if (poseArray.length == 11 + valsPerFiducial * out.tagCount) {
+            out.numFiducials = Math.min(out.tagCount, BotPoseSample.MAX_FIDUCIALS);
+            for (int i = 0; i < out.numFiducials; i++) {
+                int baseIndex = 11 + (i * valsPerFiducial);
+                out.fiducialIds[i] = (int) poseArray[baseIndex];
+                out.fiducialTxnc[i] = poseArray[baseIndex + 1];
+                out.fiducialTync[i] = poseArray[baseIndex + 2];
+                out.fiducialTa[i] = poseArray[baseIndex + 3];
+                out.fiducialDistToCamera[i] = poseArray[baseIndex + 4];
+                out.fiducialDistToRobot[i] = poseArray[baseIndex + 5];
+                out.fiducialAmbiguity[i] = poseArray[baseIndex + 6];
+            }
+        }
+        return true;
+    }
+
+    /** Top-level parts of the Limelight JSON dump that {@link SelectiveResultsReader} can extract. */
+    public enum ResultField {
+        /** "pID", "tl", "cl", "ts" and "ts_rio" */
+        TIMING,
+        /** "botpose" */
+        BOTPOSE,
+        /** "botpose_wpiblue" */
+        BOTPOSE_WPIBLUE,
+        /** "botpose_wpired" */
+        BOTPOSE_WPIRED,
+        /** "botpose_tagcount", "botpose_span", "botpose_avgdist" and "botpose_avgarea" */
+        BOTPOSE_STATS,
+        /** "fID", "tx", "ty" and "ta" of every entry in "Fiducial" */
+        FIDUCIALS
+    }
+
+    /**
+     * A pooled, partially-populated counterpart of {@link LimelightResults}. Only the fields
+     * requested from the {@link SelectiveResultsReader} are updated; the rest keep their defaults.
+     */
+    public static class SelectiveResults {
+        public static final int MAX_FIDUCIALS = 32;
+
+        /** null if the last parse succeeded */
+        public String error;
+        public boolean valid;
+        public double pipelineID;
+        public double latency_pipeline;
+        public double latency_capture;
+        public double latency_jsonParse;
+        public double timestamp_LIMELIGHT_publish;
+        public double timestamp_RIOFPGA_capture;
+
+        public final double[] botpose = new double[6];
+        public final double[] botpose_wpired = new double[6];
+        public final double[] botpose_wpiblue = new double[6];
+        public double botpose_tagcount;
+        public double botpose_span;
+        public double botpose_avgdist;
+        public double botpose_avgarea;
+
+        /** Number of valid entries in the fiducial arrays */
+        public int numFiducials;
+        public final int[] fiducialIDs = new int[MAX_FIDUCIALS];
+        public final double[] fiducialTx = new double[MAX_FIDUCIALS];
+        public final double[] fiducialTy = new double[MAX_FIDUCIALS];
+        public final double[] fiducialTa = new double[MAX_FIDUCIALS];
+
+        private void reset() {
+            error = null;
+            valid = false;
+            pipelineID = 0;
+            latency_pipeline = 0;
+            latency_capture = 0;
+            latency_jsonParse = 0;
+            timestamp_LIMELIGHT_publish = 0;
+            timestamp_RIOFPGA_capture = 0;
+            Arrays.fill(botpose, 0);
+            Arrays.fill(botpose_wpired, 0);
+            Arrays.fill(botpose_wpiblue, 0);
+            botpose_tagcount = 0;
+            botpose_span = 0;
+            botpose_avgdist = 0;
+            botpose_avgarea = 0;
+            numFiducials = 0;
+        }
+    }
+
+    /**
+     * Parses the Limelight JSON dump with Jackson's streaming JsonParser, extracting only the
+     * requested {@link ResultField}s and skipping everything else without building it.
+     *
+     * <p>Unlike {@link #getLatestResults}, no LimelightTarget objects or pose arrays are allocated;
+     * every parse overwrites the same {@link SelectiveResults}. Not thread-safe.
+     */
+    public static class SelectiveResultsReader {
+        private static final JsonFactory factory = new JsonFactory();
+
+        private final boolean timing;
+        private final boolean botpose;
+        private final boolean botposeWpiBlue;
+        private final boolean botposeWpiRed;
+        private final boolean botposeStats;
+        private final boolean fiducials;
+        private final SelectiveResults results = new SelectiveResults();
+
+        public SelectiveResultsReader(EnumSet<ResultField> fields) {
+            timing = fields.contains(ResultField.TIMING);
+            botpose = fields.contains(ResultField.BOTPOSE);
+            botposeWpiBlue = fields.contains(ResultField.BOTPOSE_WPIBLUE);
+            botposeWpiRed = fields.contains(ResultField.BOTPOSE_WPIRED);
+            botposeStats = fields.contains(ResultField.BOTPOSE_STATS);
+            fiducials = fields.contains(ResultField.FIDUCIALS);
+        }
+
+        /** Reads and parses the latest JSON dump from the given Limelight. */
+        public SelectiveResults read(String limelightName) {
+            return parse(getJSONDump(limelightName));
+        }
+
+        /**
+         * Parses a Limelight JSON dump. The returned object is reused by the next call.
+         */
+        public SelectiveResults parse(String json) {
+            long start = System.nanoTime();
+            results.reset();
+            try (JsonParser parser = factory.createParser(json)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    results.error = "lljson error: expected a JSON object";
+                } else {
+                    parseResults(parser);
+                }
+            } catch (IOException e) {
+                results.error = "lljson error: " + e.getMessage();
+            }
+            results.latency_jsonParse = (System.nanoTime() - start) * .000001;
+            return results;
+        }
+
+        private void parseResults(JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                // Field names are interned by the parser, so this switch does not allocate.
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "v":
+                        results.valid = parser.getValueAsBoolean();
+                        break;
+                    case "pID":
+                        if (timing) results.pipelineID = parser.getValueAsDouble();
+                        else parser.skipChildren();
+                        break;
+                    case "tl":
+                        if (timing) results.latency_pipeline = parser.getValueAsDouble();
+                        else parser.skipChildren();
+                        break;
+                    case "cl":
+                        if (timing) results.latency_capture = parser.getValueAsDouble();
+                        else parser.skipChildren();
+                        break;
+                    case "ts":
+                        if (timing) results.timestamp_LIMELIGHT_publish = parser.getValueAsDouble();
+                        else parser.skipChildren();
+                        break;
+                    case "ts_rio":
+                        if (timing) results.timestamp_RIOFPGA_capture = parser.getValueAsDouble();
+                        else parser.skipChildren();
+                        break;
+                    case "botpose":
+                        if (botpose) readDoubleArray(parser, results.botpose);
+                        else parser.skipChildren();
+                        break;
+                    case "botpose_wpiblue":
+                        if (botposeWpiBlue) readDoubleArray(parser, results.botpose_wpiblue);
+                        else parser.skipChildren();
+                        break;
+                    case "botpose_wpired":
+                        if (botposeWpiRed) readDoubleArray(parser, results.botpose_wpired);
+                        else parser.skipChildren();
+                        break;
+                    case "botpose_tagcount":
+                        if (botposeStats) results.botpose_tagcount = parser.getValueAsDouble();
+                        else parser.skipChildren();
+                        break;
+                    case "botpose_span":
+                        if (botposeStats) results.botpose_span = parser.getValueAsDouble();
+                        else parser.skipChildren();
+                        break;
+                    case "botpose_avgdist":
+                        if (botposeStats) results.botpose_avgdist = parser.getValueAsDouble();
+                        else parser.skipChildren();
+                        break;
+                    case "botpose_avgarea":
+                        if (botposeStats) results.botpose_avgarea = parser.getValueAsDouble();
+                        else parser.skipChildren();
+                        break;
+                    case "Fiducial":
+                        if (fiducials) readFiducials(parser);
+                        else parser.skipChildren();
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+
+        // Reads up to out.length numbers of the current array into out and skips the rest.
+        private static void readDoubleArray(JsonParser parser, double[] out) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return;
+            }
+            int i = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (i < out.length) {
+                    out[i++] = parser.getValueAsDouble();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private void readFiducials(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                int i = results.numFiducials;
+                if (i >= SelectiveResults.MAX_FIDUCIALS) {
+                    parser.skipChildren();
+                    continue;
+                }
+                results.fiducialIDs[i] = 0;
+                results.fiducialTx[i] = 0;
+                results.fiducialTy[i] = 0;
+                results.fiducialTa[i] = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    switch (name) {
+                        case "fID":
+                            results.fiducialIDs[i] = parser.getValueAsInt();
+                            break;
+                        case "tx":
+                            results.fiducialTx[i] = parser.getValueAsDouble();
+                            break;
+                        case "ty":
+                            results.fiducialTy[i] = parser.getValueAsDouble();
+                            break;
+                        case "ta":
+                            results.fiducialTa[i] = parser.getValueAsDouble();
+                            break;
+                        default:
+                            parser.skipChildren();
+                            break;
+                    }
+                }
+                results.numFiducials++;
+            }
+        }
+    }
+
     private static ObjectMapper mapper;
 
     /**
@@ -0,0 +1,122 @@
+package frc.robot;
+
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.File;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads every PathPlanner path in the deploy directory on a worker thread and generates their
+ * ideal trajectories ahead of time.
+ *
+ * <p>PathPlannerPath memoizes its ideal trajectory, so commands built from the paths returned here
+ * do not pay file-read, JSON-parse or trajectory-generation cost on first use. A path is fully
+ * generated by whichever thread loads it before it is published in the map, so a path is never
+ * mutated by the worker after another thread has obtained it. {@link #tryGetPath} never blocks on
+ * the worker thread.
+ *
+ * <p>Autos are not warmed here: the auto chooser's PathPlannerAutos load their paths and generate
+ * their trajectories while the chooser is built at boot.
+ */
+public class PathPlannerWarmup {
+  private static final File kPathsDir =
+      new File(Filesystem.getDeployDirectory(), "pathplanner/paths");
+
+  private final Map<String, PathPlannerPath> m_paths = new ConcurrentHashMap<>();
+  private RobotConfig m_config = null;
+  private boolean m_configLoaded = false;
+  private Thread m_thread = null;
+  private volatile boolean m_isDone = false;
+
+  /** Starts warming up on a worker thread. Does nothing if already started. */
+  public synchronized void start() {
+    if (m_thread != null) {
+      return;
+    }
+    m_thread = new Thread(this::warmUp, "PathPlannerWarmup");
+    m_thread.setDaemon(true);
+    m_thread.start();
+  }
+
+  /** Returns true once every path has been loaded and generated. */
+  public boolean isDone() {
+    return m_isDone;
+  }
+
+  /** Returns the path if it has already been loaded. Never blocks. */
+  public Optional<PathPlannerPath> tryGetPath(final String pathName) {
+    return Optional.ofNullable(m_paths.get(pathName));
+  }
+
+  /**
+   * Returns the path, loading it and generating its ideal trajectory on the calling thread if it
+   * has not been loaded yet. Prefer {@link #tryGetPath} on the main thread once the worker has
+   * been started. Returns null if the path fails to load.
+   */
+  public PathPlannerPath getPath(final String pathName) {
+    return m_paths.computeIfAbsent(pathName, this::loadPath);
+  }
+
+  private PathPlannerPath loadPath(final String pathName) {
+    final PathPlannerPath path;
+    try {
+      path = PathPlannerPath.fromPathFile(pathName);
+    } catch (Exception e) {
+      DriverStation.reportError(
+          "PathPlannerWarmup: Failed to load path " + pathName + ": " + e, e.getStackTrace());
+      return null;
+    }
+    final RobotConfig config = getConfig();
+    if (config != null) {
+      // Flipped paths reuse the flipped ideal trajectory, so only the original is generated.
+      path.getIdealTrajectory(config);
+    }
+    return path;
+  }
+
+  private synchronized RobotConfig getConfig() {
+    if (!m_configLoaded) {
+      m_configLoaded = true;
+      try {
+        m_config = RobotConfig.fromGUISettings();
+      } catch (Exception e) {
+        DriverStation.reportWarning(
+            "PathPlannerWarmup: Failed to load RobotConfig, skipping trajectory generation", false);
+      }
+    }
+    return m_config;
+  }
+
+  private void warmUp() {
+    final long startNs = System.nanoTime();
+    for (final String pathName : listDeployFiles(kPathsDir, ".path")) {
+      getPath(pathName);
+    }
+    m_isDone = true;
+    DriverStation.reportWarning(
+        "PathPlannerWarmup: Loaded "
+            + m_paths.size()
+            + " paths in "
+            + (System.nanoTime() - startNs) / 1e6
+            + " ms",
+        false);
+  }
+
+  // Returns the names of files in the directory with the given extension, without the extension.
+  private static String[] listDeployFiles(final File dir, final String extension) {
+    final File[] files = dir.listFiles((d, name) -> name.endsWith(extension));
+    if (files == null) {
+      return new String[0];
+    }
+    final String[] names = new String[files.length];
+    for (int i = 0; i < files.length; i++) {
+      final String fileName = files[i].getName();
+      names[i] = fileName.substring(0, fileName.length() - extension.length());
+    }
+    return names;
+  }
+}
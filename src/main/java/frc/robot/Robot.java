@@ -4,19 +4,13 @@
 
 package frc.robot;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.io.IOException;
 import java.io.Serial;
-import java.text.ParseException;
 
 import com.ctre.phoenix6.Utils;
-import com.pathplanner.lib.commands.PathPlannerAuto;
-import com.pathplanner.lib.path.PathPlannerPath;
 import com.pathplanner.lib.auto.AutoBuilder;
 
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.simulation.BatterySim;
 import edu.wpi.first.wpilibj.simulation.RoboRioSim;
@@ -24,8 +18,8 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import static edu.wpi.first.units.Units.*;
 
+import java.io.File;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import com.ctre.phoenix6.SignalLogger;
 import com.ctre.phoenix6.Utils;
@@ -57,6 +51,12 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import frc.quixlib.devices.QuixStatusSignalRegistry;
+import frc.quixlib.profiling.CommandProfiler;
+import frc.quixlib.profiling.LoopProfiler;
+import frc.quixlib.telemetry.QuixDataLog;
+import frc.quixlib.telemetry.QuixTelemetry;
+import frc.quixlib.vision.VisionMeasurementQueue;
 
 
 
@@ -67,22 +67,76 @@ public class Robot extends TimedRobot {
 
   private final boolean kUseLimelight = false;
 
-  private String autoName, newAutoName;
-
   private final Field2d m_field = new Field2d();
-  
-  Optional<Alliance> ally = DriverStation.getAlliance();
-  Optional<Alliance> newAlly;
-  private Vision vision;
+  private final AutoPreview m_autoPreview;
+
+  private VisionSystem vision;
+  private final VisionMeasurementQueue.Measurement m_visionMeasurement =
+      new VisionMeasurementQueue.Measurement();
+  private final Matrix<N3, N1> m_visionStdDevs = new Matrix<>(N3.instance, N1.instance);
+
+  private final LoopProfiler.Section m_refreshSignalsProfile =
+      LoopProfiler.getSection("Robot.refreshSignals");
+  private final LoopProfiler.Section m_schedulerProfile =
+      LoopProfiler.getSection("CommandScheduler.run()");
+  private final LoopProfiler.Section m_visionProfile = LoopProfiler.getSection("Robot.vision");
+  private final LoopProfiler.Section m_disabledProfile =
+      LoopProfiler.getSection("Robot.disabledPeriodic()");
+  private final LoopProfiler.Section m_autonomousProfile =
+      LoopProfiler.getSection("Robot.autonomousPeriodic()");
+  private final LoopProfiler.Section m_teleopProfile =
+      LoopProfiler.getSection("Robot.teleopPeriodic()");
+  private final LoopProfiler.Section m_simulationProfile =
+      LoopProfiler.getSection("Robot.simulationPeriodic()");
 
   public Robot() {
-    m_robotContainer = new RobotContainer();
-    vision = new Vision();
+    this(new SimParameters());
+  }
+
+  /** Creates the robot with tuning overrides for a headless simulation run. */
+  Robot(SimParameters simParameters) {
+    // Must be set before any subsystems construct their telemetry publishers.
+    QuixTelemetry.setLevel(Constants.kTelemetryLevel);
+    if (isReal()) {
+      // Log to a USB stick if one is plugged in, otherwise into the DataLogManager log.
+      final File usbLogDirectory = new File(Constants.kUsbLogPath);
+      if (!usbLogDirectory.getParentFile().isDirectory()
+          || !QuixDataLog.startFile(usbLogDirectory)) {
+        QuixDataLog.startDataLog(DataLogManager.getLog());
+      }
+    }
+    m_robotContainer = new RobotContainer(simParameters);
+    vision =
+        new VisionSystem(
+            Constants.Vision.kCameraNames, Constants.Vision.kRobotToCams, simParameters);
+    vision.start();
+    // Constructed after RobotContainer so that AutoBuilder is configured.
+    m_autoPreview = new AutoPreview(m_field);
+
+    // Bind after RobotContainer so the command mark runs after all button bindings.
+    LoopProfiler.bindCommandProfiling(CommandScheduler.getInstance());
+    CommandProfiler.bind(CommandScheduler.getInstance());
+  }
+
+  RobotContainer getRobotContainer() {
+    return m_robotContainer;
+  }
+
+  /** Returns the command scheduled by the last autonomousInit(), or null. */
+  Command getAutonomousCommand() {
+    return m_autonomousCommand;
   }
 
   @Override
   public void robotPeriodic() {
+    // Refresh all quixlib signals at once so every subsystem sees the same snapshot.
+    m_refreshSignalsProfile.start();
+    QuixStatusSignalRegistry.refreshAll();
+    m_refreshSignalsProfile.stop();
+
+    m_schedulerProfile.start();
     CommandScheduler.getInstance().run();
+    m_schedulerProfile.stop();
 
     /*
      * This example of adding Limelight is very simple and may not be sufficient for on-field use.
@@ -98,30 +152,26 @@ public class Robot extends TimedRobot {
     //     m_robotContainer.drivetrain.addVisionMeasurement(llMeasurement.pose, Utils.fpgaToCurrentTime(llMeasurement.timestampSeconds));
     //   }
     // }
-    try{
-      var visionEst = vision.getEstimatedGlobalPose();
-    visionEst.ifPresent(
-            est -> {
-                // Change our trust in the measurement based on the tags we can see
-                var estStdDevs = vision.getEstimationStdDevs();
-
-                m_robotContainer.drivetrain.addVisionMeasurement(
-                        est.estimatedPose.toPose2d(), est.timestampSeconds, estStdDevs);
-            });
-    } catch (Exception e) {
-      e.printStackTrace();
+    m_visionProfile.start();
+    // Estimates are computed on the vision thread; only feed them to the drivetrain here.
+    while (vision.pollMeasurement(m_visionMeasurement)) {
+      m_visionStdDevs.set(0, 0, m_visionMeasurement.stdDevX);
+      m_visionStdDevs.set(1, 0, m_visionMeasurement.stdDevY);
+      m_visionStdDevs.set(2, 0, m_visionMeasurement.stdDevTheta);
+      m_robotContainer.drivetrain.addVisionMeasurement(
+          m_visionMeasurement.toPose2d(), m_visionMeasurement.timestampSeconds, m_visionStdDevs);
     }
-    
-
-
-
-
+    m_visionProfile.stop();
 
+    LoopProfiler.update();
+    CommandProfiler.update();
   }
 
   @Override
   public void disabledInit() {
-    autoName = "";
+    m_autoPreview.invalidate();
+    // Generates path trajectories in the background so the first auto or button press doesn't.
+    m_robotContainer.pathWarmup.start();
 
     Command resetGryo = new Command()
     {
@@ -145,62 +195,28 @@ public class Robot extends TimedRobot {
 
   @Override
   public void disabledPeriodic() { 
-    ally = DriverStation.getAlliance();
-    newAutoName = m_robotContainer.getAutonomousCommand().getName();
-    if (autoName != newAutoName | ally != newAlly) {
-        newAlly = ally;
-        autoName = newAutoName;
-        if (AutoBuilder.getAllAutoNames().contains(autoName)) {
-            System.out.println("Displaying " + autoName);
-            try {
-                List<PathPlannerPath> pathPlannerPaths = PathPlannerAuto.getPathGroupFromAutoFile(autoName);
-                List<Pose2d> poses = new ArrayList<>();
-                for (PathPlannerPath path : pathPlannerPaths) {
-                        if (ally.isPresent()) {
-                          if (ally.get() == Alliance.Red) {
-                            poses.addAll(path.getAllPathPoints().stream()
-                            .map(point -> new Pose2d(16.541 - point.position.getX(), point.position.getY(), new Rotation2d()))
-                          .collect(Collectors.toList()));
-                          }
-                          if (ally.get() == Alliance.Blue) {
-                            poses.addAll(path.getAllPathPoints().stream()
-                            .map(point -> new Pose2d(point.position.getX(), point.position.getY(), new Rotation2d()))
-                          .collect(Collectors.toList()));
-                          }
-                        }
-                        else {
-                            System.out.println("No alliance found");
-                            poses.addAll(path.getAllPathPoints().stream()
-                            .map(point -> new Pose2d(point.position.getX(), point.position.getY(), new Rotation2d()))
-                          .collect(Collectors.toList()));
-                        }
-                }
-              
-                m_field.getObject("path").setPoses(poses);
-            } catch (IOException e) {
-                e.printStackTrace();
-            } catch (Exception e) {
-                if (e instanceof ParseException) {
-                    e.printStackTrace();
-                } else {
-                  e.printStackTrace();
-                }
-            }
-        }
-    }
+    m_disabledProfile.start();
+    updateAutoPreview();
     SwerveDriveState state = m_robotContainer.drivetrain.getState();
     Pose2d pose = state.Pose;
     m_field.setRobotPose(pose);
     SmartDashboard.putData(m_field);
-    
+    m_disabledProfile.stop();
 }
+
+  private void updateAutoPreview() {
+    final Command autoCommand = m_robotContainer.getAutonomousCommand();
+    m_autoPreview.update(
+        autoCommand == null ? "" : autoCommand.getName(), DriverStation.getAlliance());
+  }
+
   @Override
   public void disabledExit() {}
 
   @Override
   public void autonomousInit() {
     m_autonomousCommand = m_robotContainer.getAutonomousCommand();
-    autoName = "";
+    m_autoPreview.invalidate();
     if (m_autonomousCommand != null) {
       m_autonomousCommand.schedule();
     }
@@ -209,53 +225,13 @@ public class Robot extends TimedRobot {
 
   @Override
   public void autonomousPeriodic() {
-    ally = DriverStation.getAlliance();
-    newAutoName = m_robotContainer.getAutonomousCommand().getName();
-    if (autoName != newAutoName | ally != newAlly) {
-      newAlly = ally;
-        autoName = newAutoName;
-        if (AutoBuilder.getAllAutoNames().contains(autoName)) {
-            System.out.println("Displaying " + autoName);
-            try {
-                List<PathPlannerPath> pathPlannerPaths = PathPlannerAuto.getPathGroupFromAutoFile(autoName);
-                List<Pose2d> poses = new ArrayList<>();
-                for (PathPlannerPath path : pathPlannerPaths) {
-                  if (ally.isPresent()) {
-                    if (ally.get() == Alliance.Red) {
-                      poses.addAll(path.getAllPathPoints().stream()
-                      .map(point -> new Pose2d(16.541 - point.position.getX(), point.position.getY(), new Rotation2d()))
-                    .collect(Collectors.toList()));
-                    }
-                    if (ally.get() == Alliance.Blue) {
-                      poses.addAll(path.getAllPathPoints().stream()
-                      .map(point -> new Pose2d(point.position.getX(), point.position.getY(), new Rotation2d()))
-                    .collect(Collectors.toList()));
-                    }
-                  }
-                  else {
-                      System.out.println("No alliance found");
-                      poses.addAll(path.getAllPathPoints().stream()
-                      .map(point -> new Pose2d(point.position.getX(), point.position.getY(), new Rotation2d()))
-                    .collect(Collectors.toList()));
-                  }
-                }
-                
-                m_field.getObject("path").setPoses(poses);
-            } catch (IOException e) {
-                e.printStackTrace();
-            } catch (Exception e) {
-                if (e instanceof ParseException) {
-                    e.printStackTrace();
-                } else {
-                  e.printStackTrace();
-                }
-            }
-        }
-    }
+    m_autonomousProfile.start();
+    updateAutoPreview();
     SwerveDriveState state = m_robotContainer.drivetrain.getState();
     Pose2d pose = state.Pose;
     m_field.setRobotPose(pose);
     SmartDashboard.putData(m_field);
+    m_autonomousProfile.stop();
   }
 
   @Override
@@ -270,11 +246,13 @@ public class Robot extends TimedRobot {
 
   @Override
   public void teleopPeriodic() {
+    m_teleopProfile.start();
     SwerveDriveState state = m_robotContainer.drivetrain.getState();
     Pose2d pose = state.Pose;
-    m_field.getObject("path").setPoses();
+    m_autoPreview.clear();
     m_field.setRobotPose(pose);
     SmartDashboard.putData(m_field);
+    m_teleopProfile.stop();
   }
 
   @Override
@@ -293,6 +271,7 @@ public class Robot extends TimedRobot {
 
   @Override
   public void simulationPeriodic() {
+m_simulationProfile.start();
 // Update drivetrain simulation
 
 SwerveDriveState state = m_robotContainer.drivetrain.getState();
@@ -302,6 +281,7 @@ vision.simulationPeriodic(pose);
 
 var debugField = vision.getSimDebugField();
 debugField.getObject("EstimatedRobot").setPose(pose);
+m_simulationProfile.stop();
 
 
   }
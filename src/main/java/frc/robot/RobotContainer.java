@@ -10,14 +10,12 @@ import com.ctre.phoenix6.swerve.SwerveDrivetrain.SwerveDriveState;
 import com.ctre.phoenix6.swerve.SwerveModule.DriveRequestType;
 import com.ctre.phoenix6.swerve.SwerveRequest;
 
-import org.json.simple.parser.ParseException;
 import org.photonvision.PhotonUtils;
 
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.auto.NamedCommands;
 import com.pathplanner.lib.path.PathConstraints;
 import com.pathplanner.lib.path.PathPlannerPath;
-import com.pathplanner.lib.util.FileVersionException;
 
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.math.geometry.Pose2d;
@@ -32,11 +30,13 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
 import frc.quixlib.viz.Link2d;
 import frc.quixlib.viz.Viz2d;
 import frc.robot.commands.IntakePiece;
+import frc.robot.commands.MoveElevatorArm;
 import frc.robot.commands.Moveup;
 import frc.robot.generated.TunerConstants;
 import frc.robot.subsystems.CommandSwerveDrivetrain;
@@ -45,9 +45,9 @@ import frc.robot.subsystems.IntakeSubsystem;
 import frc.robot.subsystems.EleArmSubsystem;
 import static frc.robot.Constants.Drive.*;
 
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class RobotContainer {
     private double MaxSpeed = MaxSpeedPercentage*(TunerConstants.kSpeedAt12Volts.in(MetersPerSecond)); // kSpeedAt12Volts desired top speed
@@ -59,6 +59,9 @@ public class RobotContainer {
 
     public final CommandSwerveDrivetrain drivetrain = TunerConstants.createDrivetrain();
 
+    /* Loads PathPlanner paths and generates their trajectories; started in Robot.disabledInit() */
+    public final PathPlannerWarmup pathWarmup = new PathPlannerWarmup();
+
     /* Setting up bindings for necessary control of the swerve drive platform */
     private final SwerveRequest.FieldCentric drive = new SwerveRequest.FieldCentric()
             .withDeadband(MaxSpeed * DriveDeadband).withRotationalDeadband(MaxAngularRate * RotationDeadband)
@@ -143,15 +146,10 @@ private final Link2d EleArmRedirectRollerViz =
         new Link2d(
             robotViz, "EleArm Redirect Roller", Units.inchesToMeters(1.0), 10, Color.kCoral));
 
-private final ElevatorSubsystem elevator = new ElevatorSubsystem(elevatorCarriageViz);
-private final IntakeSubsystem intake = new IntakeSubsystem(intakeArmViz, intakeRollerViz);
-private final EleArmSubsystem EleArm =
-      new EleArmSubsystem(
-          EleArmArmViz,
-          EleArmTopWheelViz,
-          EleArmBottomWheelViz,
-          EleArmFeedRollerViz,
-          EleArmRedirectRollerViz);
+// Constructed from the SimParameters in the constructor.
+private final ElevatorSubsystem elevator;
+private final IntakeSubsystem intake;
+private final EleArmSubsystem EleArm;
 
 
 
@@ -161,8 +159,38 @@ private final EleArmSubsystem EleArm =
 
 
     public RobotContainer() {
+        this(new SimParameters());
+    }
+
+    /**
+     * @param simParameters Tuning overrides for headless simulation runs. The robot uses the
+     *                      defaults.
+     */
+    RobotContainer(SimParameters simParameters) {
+        drivetrain.configureAutoBuilder(
+            simParameters.getAutoTranslationKp(), simParameters.getAutoRotationKp());
+        elevator = new ElevatorSubsystem(
+            elevatorCarriageViz, simParameters.getElevatorMaxAcceleration());
+        intake = new IntakeSubsystem(intakeArmViz, intakeRollerViz);
+        EleArm = new EleArmSubsystem(
+            EleArmArmViz,
+            EleArmTopWheelViz,
+            EleArmBottomWheelViz,
+            EleArmFeedRollerViz,
+            EleArmRedirectRollerViz,
+            simParameters.getArmProfileConstraints(),
+            simParameters.getArmSlowProfileConstraints());
 
         robotCommands.put("IntakePiece", new IntakePiece(intake, elevator).withTimeout(2.5));
+        // Coordinated moves rely on the keep-out zones to avoid collisions, so autos can't use
+        // them until the zones are measured.
+        if (Constants.EleArm.elevatorKeepOutZonesMeasured) {
+            robotCommands.put("ElevatorArmToAmp", new MoveElevatorArm(
+                elevator, EleArm,
+                Constants.Elevator.scoreAmpHeight, Constants.EleArm.scoreAmpArmAngle));
+            robotCommands.put("ElevatorArmToStow", new MoveElevatorArm(
+                elevator, EleArm, Constants.Elevator.stowHeight, Constants.EleArm.maxAngle));
+        }
     
         NamedCommands.registerCommands(robotCommands);
 
@@ -294,30 +322,24 @@ private final EleArmSubsystem EleArm =
     private Command pathfindingtofollowCommand() {
         // Since we are using a holonomic drivetrain, the rotation component of this pose
         // represents the goal holonomic rotation
-        PathPlannerPath path = null;
-        try {
-            path = PathPlannerPath.fromPathFile("Testpath");
-        } catch (FileVersionException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        } catch (IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        } catch (ParseException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-
         // Create the constraints to use while pathfinding
         PathConstraints constraints = new PathConstraints(
                 4.0, 4.0,
                 Units.degreesToRadians(540), Units.degreesToRadians(720));
 
-        // Since AutoBuilder is configured, we can use it to build pathfinding commands
-        return AutoBuilder.pathfindThenFollowPath(
-                path,
-                constraints
-                 
-        );
+        // Look the path up when the command starts rather than at boot, by which time the warm-up
+        // thread has normally loaded it and generated its trajectory. It is only loaded on the
+        // main thread if the warm-up hasn't reached it yet.
+        return Commands.defer(
+                () -> {
+                    PathPlannerPath path = pathWarmup.tryGetPath("Testpath")
+                            .orElseGet(() -> pathWarmup.getPath("Testpath"));
+                    if (path == null) {
+                        return Commands.none();
+                    }
+                    // Since AutoBuilder is configured, we can use it to build pathfinding commands
+                    return AutoBuilder.pathfindThenFollowPath(path, constraints);
+                },
+                Set.of(drivetrain));
     }
 }
@@ -0,0 +1,117 @@
+package frc.robot;
+
+import frc.quixlib.math.BilinearGrid;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Generates the shoot-on-the-move grid loaded by EleArmSubsystem from a drag-free ballistic model.
+ *
+ * <p>For every (distance, radial velocity) grid point, solves for the lowest launch angle at which
+ * a note leaving the arm pivot at the nominal shot velocity reaches the speaker target height at
+ * the target distance, accounting for the robot's velocity toward or away from the target. Run
+ * offline with {@code ./gradlew generateShotMap}; the robot only reads the resulting file.
+ */
+public class ShotMapGenerator {
+  private static final double kMaxSolveAngle = Math.toRadians(85.0); // rads
+  private static final double kAngleScanStep = Math.toRadians(0.1); // rads
+  private static final int kBisectionIterations = 50;
+
+  public static void main(String[] args) throws IOException {
+    final File file =
+        new File(args.length > 0 ? args[0] : "src/main/deploy/" + Constants.EleArm.shotGridFile);
+
+    final int nx = Constants.EleArm.shotGridDistanceCount;
+    final int ny = Constants.EleArm.shotGridRadialVelocityCount;
+    final double[][][] values = new double[nx][ny][3];
+    for (int ix = 0; ix < nx; ix++) {
+      final double distance =
+          Constants.EleArm.shotGridMinDistance + ix * Constants.EleArm.shotGridDistanceStep;
+      for (int iy = 0; iy < ny; iy++) {
+        final double radialVelocity =
+            Constants.EleArm.shotGridMinRadialVelocity
+                + iy * Constants.EleArm.shotGridRadialVelocityStep;
+        solve(distance, radialVelocity, values[ix][iy]);
+      }
+    }
+
+    BilinearGrid.write(
+        file,
+        Constants.EleArm.shotGridMinDistance,
+        Constants.EleArm.shotGridDistanceStep,
+        Constants.EleArm.shotGridMinRadialVelocity,
+        Constants.EleArm.shotGridRadialVelocityStep,
+        values);
+    System.out.println("Wrote " + nx + "x" + ny + " shot grid to " + file.getAbsolutePath());
+  }
+
+  // Fills out with {arm angle, launch velocity, time of flight}.
+  private static void solve(final double distance, final double radialVelocity, double[] out) {
+    // Scan up from a flat shot for the first angle that reaches the target height, then bisect.
+    double lo = 0.0;
+    double bestAngle = 0.0;
+    double bestError = Double.NEGATIVE_INFINITY;
+    boolean found = false;
+    for (double angle = kAngleScanStep; angle <= kMaxSolveAngle; angle += kAngleScanStep) {
+      final double error = heightError(distance, radialVelocity, angle);
+      if (error >= 0.0) {
+        double hi = angle;
+        for (int i = 0; i < kBisectionIterations; i++) {
+          final double mid = 0.5 * (lo + hi);
+          if (heightError(distance, radialVelocity, mid) >= 0.0) {
+            hi = mid;
+          } else {
+            lo = mid;
+          }
+        }
+        bestAngle = hi;
+        found = true;
+        break;
+      }
+      if (error > bestError) {
+        // Remember the closest miss in case the target is out of reach.
+        bestError = error;
+        bestAngle = angle;
+      }
+      lo = angle;
+    }
+    if (!found) {
+      System.out.printf(
+          "No solution at %.2f m, %.2f m/s; using closest angle%n", distance, radialVelocity);
+    }
+
+    // The time of flight must match the angle the arm can actually reach.
+    final double armAngle =
+        Math.min(Math.max(bestAngle, Constants.EleArm.minAngle), Constants.EleArm.maxAngle);
+    if (armAngle != bestAngle) {
+      System.out.printf(
+          "Clamped the arm angle at %.2f m, %.2f m/s from %.1f to %.1f deg%n",
+          distance, radialVelocity, Math.toDegrees(bestAngle), Math.toDegrees(armAngle));
+    }
+    out[Constants.EleArm.shotMapArmAngleIndex] = armAngle;
+    out[Constants.EleArm.shotMapLaunchVelocityIndex] = Constants.EleArm.launchVelocity;
+    out[Constants.EleArm.shotMapTimeOfFlightIndex] =
+        timeOfFlight(distance, radialVelocity, armAngle);
+  }
+
+  // Time for the note to cover the horizontal distance, or infinity if it never does.
+  private static double timeOfFlight(
+      final double distance, final double radialVelocity, final double angle) {
+    final double closingSpeed = Constants.EleArm.shotVelocity * Math.cos(angle) - radialVelocity;
+    return closingSpeed > 0.0 ? distance / closingSpeed : Double.POSITIVE_INFINITY;
+  }
+
+  // Height of the note above the target when it reaches the target distance.
+  private static double heightError(
+      final double distance, final double radialVelocity, final double angle) {
+    final double t = timeOfFlight(distance, radialVelocity, angle);
+    if (Double.isInfinite(t)) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    final double height =
+        Constants.EleArm.EleArmHeight
+            + Constants.EleArm.shotVelocity * Math.sin(angle) * t
+            - 0.5 * Constants.g * t * t;
+    return height - Constants.EleArm.speakerTargetHeight;
+  }
+}
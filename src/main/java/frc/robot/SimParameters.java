@@ -0,0 +1,101 @@
+package frc.robot;
+
+import frc.quixlib.planning.QuixSCurveProfile;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tuning values that a headless simulation run, e.g. an AutoSweep trial, can override. They are
+ * passed to the drivetrain, the vision sim and the subsystems through their constructors by {@link
+ * HeadlessSimRunner}. The robot itself is always constructed with the defaults, which are the
+ * values in Constants.
+ */
+public final class SimParameters {
+  public static final String kAutoTranslationKp = "autoTranslationKp";
+  public static final String kAutoRotationKp = "autoRotationKp";
+  public static final String kCalibErrorAvgPx = "calibErrorAvgPx";
+  public static final String kCalibErrorStdDevPx = "calibErrorStdDevPx";
+  public static final String kLatencyStdDevMs = "latencyStdDevMs";
+  public static final String kElevatorMaxAcceleration = "elevatorMaxAcceleration";
+  public static final String kArmMaxAcceleration = "armMaxAcceleration";
+  public static final String kArmMaxJerk = "armMaxJerk";
+  public static final String kArmSlowMaxAcceleration = "armSlowMaxAcceleration";
+  public static final String kArmSlowMaxJerk = "armSlowMaxJerk";
+
+  private final Map<String, Double> m_values = new LinkedHashMap<>();
+
+  /** Creates parameters with the default values from Constants. */
+  public SimParameters() {
+    m_values.put(kAutoTranslationKp, Constants.Drive.autoTranslationKp);
+    m_values.put(kAutoRotationKp, Constants.Drive.autoRotationKp);
+    m_values.put(kCalibErrorAvgPx, Constants.Vision.kSimCalibErrorAvgPx);
+    m_values.put(kCalibErrorStdDevPx, Constants.Vision.kSimCalibErrorStdDevPx);
+    m_values.put(kLatencyStdDevMs, Constants.Vision.kSimLatencyStdDevMs);
+    m_values.put(kElevatorMaxAcceleration, Constants.Elevator.maxAcceleration);
+    m_values.put(kArmMaxAcceleration, Constants.EleArm.armProfileConstraints.maxAcceleration);
+    m_values.put(kArmMaxJerk, Constants.EleArm.armProfileConstraints.maxJerk);
+    m_values.put(
+        kArmSlowMaxAcceleration, Constants.EleArm.armSlowProfileConstraints.maxAcceleration);
+    m_values.put(kArmSlowMaxJerk, Constants.EleArm.armSlowProfileConstraints.maxJerk);
+  }
+
+  /** Returns the names of all parameters, in a fixed order. */
+  public Set<String> getNames() {
+    return Collections.unmodifiableSet(m_values.keySet());
+  }
+
+  public double get(final String name) {
+    final Double value = m_values.get(name);
+    if (value == null) {
+      throw new IllegalArgumentException("SimParameters: unknown parameter " + name);
+    }
+    return value;
+  }
+
+  /** Overrides a parameter. */
+  public SimParameters set(final String name, final double value) {
+    get(name);
+    m_values.put(name, value);
+    return this;
+  }
+
+  public double getAutoTranslationKp() {
+    return get(kAutoTranslationKp);
+  }
+
+  public double getAutoRotationKp() {
+    return get(kAutoRotationKp);
+  }
+
+  public double getCalibErrorAvgPx() {
+    return get(kCalibErrorAvgPx);
+  }
+
+  public double getCalibErrorStdDevPx() {
+    return get(kCalibErrorStdDevPx);
+  }
+
+  public double getLatencyStdDevMs() {
+    return get(kLatencyStdDevMs);
+  }
+
+  public double getElevatorMaxAcceleration() {
+    return get(kElevatorMaxAcceleration);
+  }
+
+  public QuixSCurveProfile.Constraints getArmProfileConstraints() {
+    return new QuixSCurveProfile.Constraints(
+        Constants.EleArm.armProfileConstraints.maxVelocity,
+        get(kArmMaxAcceleration),
+        get(kArmMaxJerk));
+  }
+
+  public QuixSCurveProfile.Constraints getArmSlowProfileConstraints() {
+    return new QuixSCurveProfile.Constraints(
+        Constants.EleArm.armSlowProfileConstraints.maxVelocity,
+        get(kArmSlowMaxAcceleration),
+        get(kArmSlowMaxJerk));
+  }
+}
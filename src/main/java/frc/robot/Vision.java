@@ -27,12 +27,12 @@ package frc.robot;
 import static frc.robot.Constants.Vision.*;
 
 import edu.wpi.first.math.Matrix;
-import edu.wpi.first.math.VecBuilder;
-import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import frc.quixlib.vision.VisionMeasurementQueue;
 import java.util.List;
 import java.util.Optional;
 import org.photonvision.EstimatedRobotPose;
@@ -44,79 +44,109 @@ import org.photonvision.simulation.SimCameraProperties;
 import org.photonvision.simulation.VisionSystemSim;
 import org.photonvision.targeting.PhotonTrackedTarget;
 
+/**
+ * Estimates the robot pose from a single PhotonVision camera. Owned and driven by {@link
+ * VisionSystem}, which calls {@link #processUnreadResults} from its background thread.
+ */
 public class Vision {
+    private final String name;
+    private final String debugObjectName;
+    private final Transform3d robotToCam;
     private final PhotonCamera camera;
     private final PhotonPoseEstimator photonEstimator;
-    private Matrix<N3, N1> curStdDevs;
+    // Reusable std-dev output buffer (x, y, theta). Only accessed from the vision thread.
+    private final double[] curStdDevs = new double[3];
+    // Reusable buffer of the fiducial IDs in the current frame. Grown as needed.
+    private int[] targetIds = new int[16];
+
+    // Field positions of every tag in kTagLayout, indexed by fiducial ID.
+    private static final double[] kTagX;
+    private static final double[] kTagY;
+    private static final boolean[] kHasTag;
+
+    static {
+        int maxId = -1;
+        for (var tag : kTagLayout.getTags()) {
+            maxId = Math.max(maxId, tag.ID);
+        }
+        kTagX = new double[maxId + 1];
+        kTagY = new double[maxId + 1];
+        kHasTag = new boolean[maxId + 1];
+        for (var tag : kTagLayout.getTags()) {
+            if (tag.ID < 0) continue;
+            kTagX[tag.ID] = tag.pose.getX();
+            kTagY[tag.ID] = tag.pose.getY();
+            kHasTag[tag.ID] = true;
+        }
+    }
 
     // Simulation
     private PhotonCameraSim cameraSim;
-    private VisionSystemSim visionSim;
 
-    public Vision() {
-        camera = new PhotonCamera(kCameraName);
+    public Vision(String cameraName, Transform3d robotToCam) {
+        this.name = cameraName;
+        this.debugObjectName = "VisionEstimation " + cameraName;
+        this.robotToCam = robotToCam;
+        camera = new PhotonCamera(cameraName);
 
         photonEstimator =
-                new PhotonPoseEstimator(kTagLayout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, kRobotToCam);
+                new PhotonPoseEstimator(kTagLayout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, robotToCam);
         photonEstimator.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
+    }
 
-        // ----- Simulation
-        if (Robot.isSimulation()) {
-            // Create the vision system simulation which handles cameras and targets on the field.
-            visionSim = new VisionSystemSim("main");
-            // Add all the AprilTags inside the tag layout as visible targets to this simulated field.
-            visionSim.addAprilTags(kTagLayout);
-            // Create simulated camera properties. These can be set to mimic your actual camera.
-            var cameraProp = new SimCameraProperties();
-            cameraProp.setCalibration(960, 720, Rotation2d.fromDegrees(90));
-            cameraProp.setCalibError(0.35, 0.10);
-            cameraProp.setFPS(35);
-            cameraProp.setAvgLatencyMs(50);
-            cameraProp.setLatencyStdDevMs(15);
-            // Create a PhotonCameraSim which will update the linked PhotonCamera's values with visible
-            // targets.
-            cameraSim = new PhotonCameraSim(camera, cameraProp);
-            // Add the simulated camera to view the targets on this simulated field.
-            visionSim.addCamera(cameraSim, kRobotToCam);
-
-            cameraSim.enableDrawWireframe(true);
-        }
+    public String getName() {
+        return name;
     }
 
     /**
-     * The latest estimated robot pose on the field from vision data. This may be empty. This should
-     * only be called once per loop.
+     * Runs the estimator on every new frame from this camera and queues each valid estimate with its
+     * own timestamp and std devs. Must only be called from the vision thread.
      *
-     * <p>Also includes updates for the standard deviations, which can (optionally) be retrieved with
-     * {@link getEstimationStdDevs}
-     *
-     * @return An {@link EstimatedRobotPose} with an estimated pose, estimate timestamp, and targets
-     *     used for estimation.
+     * @param measurements The queue to push estimates into.
+     * @param debugField If non-null, the Field2d to draw this camera's latest estimate on.
+     * @return The number of estimates queued.
      */
-    public Optional<EstimatedRobotPose> getEstimatedGlobalPose() {
-        Optional<EstimatedRobotPose> visionEst = Optional.empty();
+    public int processUnreadResults(VisionMeasurementQueue measurements, Field2d debugField) {
+        int numQueued = 0;
         for (var change : camera.getAllUnreadResults()) {
-            visionEst = photonEstimator.update(change);
+            var visionEst = photonEstimator.update(change);
             updateEstimationStdDevs(visionEst, change.getTargets());
 
-            if (Robot.isSimulation()) {
+            if (visionEst.isPresent()) {
+                final var pose = visionEst.get().estimatedPose;
+                if (measurements.offer(
+                        visionEst.get().timestampSeconds,
+                        pose.getX(),
+                        pose.getY(),
+                        pose.getRotation().getZ(),
+                        curStdDevs[0],
+                        curStdDevs[1],
+                        curStdDevs[2])) {
+                    numQueued++;
+                }
+            }
+
+            if (debugField != null) {
                 visionEst.ifPresentOrElse(
                         est ->
-                                getSimDebugField()
-                                        .getObject("VisionEstimation")
+                                debugField
+                                        .getObject(debugObjectName)
                                         .setPose(est.estimatedPose.toPose2d()),
                         () -> {
-                            getSimDebugField().getObject("VisionEstimation").setPoses();
+                            debugField.getObject(debugObjectName).setPoses();
                         });
             }
         }
-        return visionEst;
+        return numQueued;
     }
 
     /**
      * Calculates new standard deviations This algorithm is a heuristic that creates dynamic standard
      * deviations based on number of tags, estimation strategy, and distance from the tags.
      *
+     * <p>Writes the result into {@link #curStdDevs} and does not allocate: tag positions come from a
+     * precomputed table indexed by fiducial ID instead of a layout search.
+     *
      * @param estimatedPose The estimated pose to guess standard deviations for.
      * @param targets All targets in this camera frame
      */
@@ -124,68 +154,97 @@ public class Vision {
             Optional<EstimatedRobotPose> estimatedPose, List<PhotonTrackedTarget> targets) {
         if (estimatedPose.isEmpty()) {
             // No pose input. Default to single-tag std devs
-            curStdDevs = kSingleTagStdDevs;
-
-        } else {
-            // Pose present. Start running Heuristic
-            var estStdDevs = kSingleTagStdDevs;
-            int numTags = 0;
-            double avgDist = 0;
-
-            // Precalculation - see how many tags we found, and calculate an average-distance metric
-            for (var tgt : targets) {
-                var tagPose = photonEstimator.getFieldTags().getTagPose(tgt.getFiducialId());
-                if (tagPose.isEmpty()) continue;
-                numTags++;
-                avgDist +=
-                        tagPose
-                                .get()
-                                .toPose2d()
-                                .getTranslation()
-                                .getDistance(estimatedPose.get().estimatedPose.toPose2d().getTranslation());
-            }
+            estimateStdDevs(0.0, 0.0, targetIds, 0, curStdDevs);
+            return;
+        }
 
-            if (numTags == 0) {
-                // No tags visible. Default to single-tag std devs
-                curStdDevs = kSingleTagStdDevs;
-            } else {
-                // One or more tags visible, run the full heuristic.
-                avgDist /= numTags;
-                // Decrease std devs if multiple targets are visible
-                if (numTags > 1) estStdDevs = kMultiTagStdDevs;
-                // Increase std devs based on (average) distance
-                if (numTags == 1 && avgDist > 4)
-                    estStdDevs = VecBuilder.fill(Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE);
-                else estStdDevs = estStdDevs.times(1 + (avgDist * avgDist / 30));
-                curStdDevs = estStdDevs;
-            }
+        if (targets.size() > targetIds.length) {
+            targetIds = new int[targets.size()];
         }
+        for (int i = 0; i < targets.size(); i++) {
+            targetIds[i] = targets.get(i).getFiducialId();
+        }
+        estimateStdDevs(
+                estimatedPose.get().estimatedPose.getX(),
+                estimatedPose.get().estimatedPose.getY(),
+                targetIds,
+                targets.size(),
+                curStdDevs);
     }
 
     /**
-     * Returns the latest standard deviations of the estimated pose from {@link
-     * #getEstimatedGlobalPose()}, for use with {@link
-     * edu.wpi.first.math.estimator.SwerveDrivePoseEstimator SwerveDrivePoseEstimator}. This should
-     * only be used when there are targets visible.
+     * The std-dev heuristic for an estimated pose at (estX, estY) built from the given tags. Does
+     * not allocate. Package-private so that it can be benchmarked without a camera.
+     *
+     * @param tagIds Fiducial IDs of the targets in the frame
+     * @param numTagIds Number of valid entries in tagIds
+     * @param out Receives the (x, y, theta) std devs
      */
-    public Matrix<N3, N1> getEstimationStdDevs() {
-        return curStdDevs;
-    }
-
-    // ----- Simulation
+    static void estimateStdDevs(
+            double estX, double estY, int[] tagIds, int numTagIds, double[] out) {
+        int numTags = 0;
+        double avgDist = 0;
+
+        // Precalculation - see how many tags we found, and calculate an average-distance metric
+        for (int i = 0; i < numTagIds; i++) {
+            final int id = tagIds[i];
+            if (id < 0 || id >= kHasTag.length || !kHasTag[id]) continue;
+            numTags++;
+            final double dx = kTagX[id] - estX;
+            final double dy = kTagY[id] - estY;
+            avgDist += Math.sqrt(dx * dx + dy * dy);
+        }
 
-    public void simulationPeriodic(Pose2d robotSimPose) {
-        visionSim.update(robotSimPose);
+        if (numTags == 0) {
+            // No tags visible. Default to single-tag std devs
+            setStdDevs(kSingleTagStdDevs, 1.0, out);
+        } else {
+            // One or more tags visible, run the full heuristic.
+            avgDist /= numTags;
+            if (numTags == 1 && avgDist > 4) {
+                // Too far from a single tag to trust it
+                out[0] = Double.MAX_VALUE;
+                out[1] = Double.MAX_VALUE;
+                out[2] = Double.MAX_VALUE;
+            } else {
+                // Decrease std devs if multiple targets are visible, and increase them based on
+                // (average) distance
+                setStdDevs(
+                        numTags > 1 ? kMultiTagStdDevs : kSingleTagStdDevs,
+                        1 + (avgDist * avgDist / 30),
+                        out);
+            }
+        }
     }
 
-    /** Reset pose history of the robot in the vision system simulation. */
-    public void resetSimPose(Pose2d pose) {
-        if (Robot.isSimulation()) visionSim.resetRobotPose(pose);
+    private static void setStdDevs(Matrix<N3, N1> base, double scale, double[] out) {
+        out[0] = base.get(0, 0) * scale;
+        out[1] = base.get(1, 0) * scale;
+        out[2] = base.get(2, 0) * scale;
     }
 
-    /** A Field2d for visualizing our robot and objects on the field. */
-    public Field2d getSimDebugField() {
-        if (!Robot.isSimulation()) return null;
-        return visionSim.getDebugField();
+
+    // ----- Simulation
+
+    /**
+     * Adds a simulated version of this camera to the vision system simulation, with the camera
+     * noise from simParameters.
+     */
+    public void addToSim(VisionSystemSim visionSim, SimParameters simParameters) {
+        // Create simulated camera properties. These can be set to mimic your actual camera.
+        var cameraProp = new SimCameraProperties();
+        cameraProp.setCalibration(960, 720, Rotation2d.fromDegrees(90));
+        cameraProp.setCalibError(
+                simParameters.getCalibErrorAvgPx(), simParameters.getCalibErrorStdDevPx());
+        cameraProp.setFPS(35);
+        cameraProp.setAvgLatencyMs(50);
+        cameraProp.setLatencyStdDevMs(simParameters.getLatencyStdDevMs());
+        // Create a PhotonCameraSim which will update the linked PhotonCamera's values with visible
+        // targets.
+        cameraSim = new PhotonCameraSim(camera, cameraProp);
+        // Add the simulated camera to view the targets on this simulated field.
+        visionSim.addCamera(cameraSim, robotToCam);
+
+        cameraSim.enableDrawWireframe(true);
     }
 }
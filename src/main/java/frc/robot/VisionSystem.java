@@ -0,0 +1,160 @@
+package frc.robot;
+
+import static frc.robot.Constants.Vision.*;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import frc.quixlib.vision.VisionMeasurementQueue;
+import org.photonvision.simulation.VisionSystemSim;
+
+/**
+ * Manages every vision camera on the robot and runs their pose estimators on a background thread.
+ *
+ * <p>Each camera has its own {@link Vision} with its own PhotonPoseEstimator and robot-to-camera
+ * transform. Every valid estimate from every camera is pushed into a single lock-free queue with
+ * its own timestamp and std devs, so the number of measurements fed to the drivetrain scales with
+ * the number of cameras instead of being capped at one per robot loop. The main robot loop drains
+ * the queue with {@link #pollMeasurement}.
+ */
+public class VisionSystem {
+    private static final long kErrorReportPeriodMs = 1000;
+
+    private final Vision[] cameras;
+
+    // Produced by the vision thread and drained by the main robot loop.
+    private final VisionMeasurementQueue measurements = new VisionMeasurementQueue(kMeasurementQueueSize);
+    private Thread thread = null;
+    private volatile boolean running = false;
+    private volatile long numMeasurements = 0;
+
+    // Simulation
+    private VisionSystemSim visionSim;
+
+    public VisionSystem(String[] cameraNames, Transform3d[] robotToCams) {
+        this(cameraNames, robotToCams, new SimParameters());
+    }
+
+    /** Creates the vision system with the given simulated camera noise. */
+    public VisionSystem(
+            String[] cameraNames, Transform3d[] robotToCams, SimParameters simParameters) {
+        if (cameraNames.length != robotToCams.length) {
+            throw new IllegalArgumentException(
+                    "VisionSystem: got " + cameraNames.length + " camera names but "
+                            + robotToCams.length + " transforms");
+        }
+        cameras = new Vision[cameraNames.length];
+        for (int i = 0; i < cameras.length; i++) {
+            cameras[i] = new Vision(cameraNames[i], robotToCams[i]);
+        }
+
+        // ----- Simulation
+        if (Robot.isSimulation()) {
+            // Create the vision system simulation which handles cameras and targets on the field.
+            visionSim = new VisionSystemSim("main");
+            // Add all the AprilTags inside the tag layout as visible targets to this simulated field.
+            visionSim.addAprilTags(kTagLayout);
+            for (var camera : cameras) {
+                camera.addToSim(visionSim, simParameters);
+            }
+        }
+    }
+
+    public int getNumCameras() {
+        return cameras.length;
+    }
+
+    /** Starts processing camera frames on a background thread. Does nothing if already started. */
+    public synchronized void start() {
+        if (thread != null) return;
+        running = true;
+        thread = new Thread(this::run, "Vision");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stops the background thread and blocks until it exits. */
+    public void stop() {
+        final Thread t;
+        synchronized (this) {
+            t = thread;
+            running = false;
+            thread = null;
+        }
+        if (t == null) return;
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Copies the oldest unconsumed vision measurement from any camera into {@code out}. Returns false
+     * if there are none. Must only be called from the main robot thread.
+     */
+    public boolean pollMeasurement(VisionMeasurementQueue.Measurement out) {
+        return measurements.poll(out);
+    }
+
+    /** Returns the total number of measurements queued from all cameras. */
+    public long getMeasurementCount() {
+        return numMeasurements;
+    }
+
+    /** Returns the number of measurements dropped because the main loop did not drain them. */
+    public long getDroppedMeasurementCount() {
+        return measurements.getDroppedCount();
+    }
+
+    private void run() {
+        final long pollPeriodMs = (long) (kPollPeriodS * 1000.0);
+        final Field2d debugField = getSimDebugField();
+        // Per camera, so that a camera that keeps failing is reported once per period instead of
+        // on every poll.
+        final long[] lastErrorReportMs = new long[cameras.length];
+        final int[] unreportedErrors = new int[cameras.length];
+        while (running) {
+            // All cameras are processed on this one thread, so the queue has a single producer.
+            for (int i = 0; i < cameras.length; i++) {
+                try {
+                    numMeasurements += cameras[i].processUnreadResults(measurements, debugField);
+                } catch (Exception e) {
+                    unreportedErrors[i]++;
+                    final long nowMs = System.currentTimeMillis();
+                    if (nowMs - lastErrorReportMs[i] >= kErrorReportPeriodMs) {
+                        DriverStation.reportError(
+                                "VisionSystem: " + cameras[i].getName() + " failed "
+                                        + unreportedErrors[i] + " times: " + e,
+                                e.getStackTrace());
+                        lastErrorReportMs[i] = nowMs;
+                        unreportedErrors[i] = 0;
+                    }
+                }
+            }
+            try {
+                Thread.sleep(pollPeriodMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // ----- Simulation
+
+    public void simulationPeriodic(Pose2d robotSimPose) {
+        visionSim.update(robotSimPose);
+    }
+
+    /** Reset pose history of the robot in the vision system simulation. */
+    public void resetSimPose(Pose2d pose) {
+        if (Robot.isSimulation()) visionSim.resetRobotPose(pose);
+    }
+
+    /** A Field2d for visualizing our robot and objects on the field. */
+    public Field2d getSimDebugField() {
+        if (!Robot.isSimulation()) return null;
+        return visionSim.getDebugField();
+    }
+}
@@ -0,0 +1,78 @@
+package frc.robot.commands;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.quixlib.planning.QuixCoordinatedProfile;
+import frc.robot.Constants;
+import frc.robot.subsystems.EleArmSubsystem;
+import frc.robot.subsystems.ElevatorSubsystem;
+
+/**
+ * Moves the elevator and arm together so that they arrive at the same time, avoiding the keep-out
+ * zones in Constants.EleArm. Ends when the move is complete, and leaves both holding the goal.
+ */
+public class MoveElevatorArm extends Command {
+  private final ElevatorSubsystem m_elevator;
+  private final EleArmSubsystem m_eleArm;
+  private final double m_height;
+  private final double m_angle;
+
+  private final QuixCoordinatedProfile m_profile;
+  private final Timer m_timer = new Timer();
+  private final State m_heightState = new State();
+  private final State m_angleState = new State();
+
+  public MoveElevatorArm(
+      ElevatorSubsystem elevator, EleArmSubsystem eleArm, double height, double angle) {
+    m_elevator = elevator;
+    m_eleArm = eleArm;
+    m_height = height;
+    m_angle = angle;
+    m_profile =
+        new QuixCoordinatedProfile(
+            elevator.getProfileConstraints(),
+            Constants.Elevator.minHeight,
+            Constants.Elevator.maxHeight,
+            eleArm.getArmProfileConstraints(),
+            Constants.EleArm.minAngle,
+            Constants.EleArm.maxAngle,
+            Constants.EleArm.elevatorKeepOutZones);
+
+    // Use addRequirements() here to declare subsystem dependencies.
+    addRequirements(elevator, eleArm);
+  }
+
+  // Called when the command is initially scheduled.
+  @Override
+  public void initialize() {
+    if (!m_profile.plan(m_elevator.getHeight(), m_eleArm.getArmAngle(), m_height, m_angle)) {
+      DriverStation.reportWarning("MoveElevatorArm: no collision-free move found", false);
+    }
+    m_profile.calculateInto(0.0, m_heightState, m_angleState);
+    m_timer.restart();
+  }
+
+  // Called every time the scheduler runs while the command is scheduled.
+  @Override
+  public void execute() {
+    m_profile.calculateInto(m_timer.get(), m_heightState, m_angleState);
+    m_elevator.setHeightReference(m_heightState.position, m_heightState.velocity);
+    m_eleArm.setArmReference(m_angleState.position, m_angleState.velocity);
+  }
+
+  // Called once the command ends or is interrupted.
+  @Override
+  public void end(boolean interrupted) {
+    // Hold the final reference, or wherever the move was interrupted.
+    m_elevator.setHeight(m_heightState.position);
+    m_eleArm.setArmAngle(m_angleState.position);
+  }
+
+  // Returns true when the command should end.
+  @Override
+  public boolean isFinished() {
+    return m_profile.isFinished(m_timer.get());
+  }
+}
@@ -30,6 +30,7 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 
+import frc.quixlib.profiling.LoopProfiler;
 import frc.robot.generated.TunerConstants.TunerSwerveDrivetrain;
 
 /**
@@ -37,9 +38,11 @@ import frc.robot.generated.TunerConstants.TunerSwerveDrivetrain;
  * Subsystem so it can easily be used in command-based projects.
  */
 public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Subsystem {
-    private static final double kSimLoopPeriod = 0.005; // 5 ms
+    public static final double kSimLoopPeriod = 0.005; // 5 ms
     private Notifier m_simNotifier = null;
     private double m_lastSimTime;
+    /* When set, the sim is stepped by stepSimState() in simulated time instead of by m_simNotifier */
+    private static boolean m_externalSimStepping = false;
 
     /* Blue alliance sees forward as 0 degrees (toward red alliance wall) */
     private static final Rotation2d kBlueAlliancePerspectiveRotation = Rotation2d.kZero;
@@ -48,6 +51,9 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
     /* Keep track if we've ever applied the operator perspective before or not */
     private boolean m_hasAppliedOperatorPerspective = false;
 
+    private final LoopProfiler.Section m_periodicProfile =
+        LoopProfiler.getSection("CommandSwerveDrivetrain.periodic()");
+
     /** Swerve request to apply during robot-centric path following */
     private final SwerveRequest.ApplyRobotSpeeds m_pathApplyRobotSpeeds = new SwerveRequest.ApplyRobotSpeeds();
 
@@ -133,10 +139,9 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         SwerveModuleConstants<?, ?, ?>... modules
     ) {
         super(drivetrainConstants, modules);
-        if (Utils.isSimulation()) {
+        if (Utils.isSimulation() && !m_externalSimStepping) {
             startSimThread();
         }
-        configureAutoBuilder();
         SmartDashboard.putData("Swerve Drive", new Sendable() {
             @Override
             public void initSendable(SendableBuilder builder) {
@@ -180,10 +185,9 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         SwerveModuleConstants<?, ?, ?>... modules
     ) {
         super(drivetrainConstants, odometryUpdateFrequency, modules);
-        if (Utils.isSimulation()) {
+        if (Utils.isSimulation() && !m_externalSimStepping) {
             startSimThread();
         }
-        configureAutoBuilder();
     }
 
     /**
@@ -213,13 +217,19 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         SwerveModuleConstants<?, ?, ?>... modules
     ) {
         super(drivetrainConstants, odometryUpdateFrequency, odometryStandardDeviation, visionStandardDeviation, modules);
-        if (Utils.isSimulation()) {
+        if (Utils.isSimulation() && !m_externalSimStepping) {
             startSimThread();
         }
-        configureAutoBuilder();
     }
 
-    private void configureAutoBuilder() {
+    /**
+     * Configures PathPlanner's AutoBuilder to drive this drivetrain. Must be called once, before
+     * any autos or path following commands are built.
+     *
+     * @param translationKp P gain of the path following translation controller
+     * @param rotationKp    P gain of the path following rotation controller
+     */
+    public void configureAutoBuilder(double translationKp, double rotationKp) {
         try {
             var config = RobotConfig.fromGUISettings();
             AutoBuilder.configure(
@@ -234,9 +244,9 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
                 ),
                 new PPHolonomicDriveController(
                     // PID constants for translation
-                    new PIDConstants(10, 0, 0),
+                    new PIDConstants(translationKp, 0, 0),
                     // PID constants for rotation
-                    new PIDConstants(7, 0, 0)
+                    new PIDConstants(rotationKp, 0, 0)
                 ),
                 config,
                 // Assume the path needs to be flipped for Red vs Blue, this is normally the case
@@ -282,6 +292,8 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
 
     @Override
     public void periodic() {
+        m_periodicProfile.start();
+
         /*
          * Periodically try to apply the operator perspective.
          * If we haven't applied the operator perspective before, then we should apply it regardless of DS state.
@@ -299,7 +311,26 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
                 m_hasAppliedOperatorPerspective = true;
             });
         }
-        
+
+        m_periodicProfile.stop();
+    }
+
+    /**
+     * Makes drivetrains constructed after this call skip the wall-clock sim thread, so that a
+     * headless runner can step them in simulated time with {@link #stepSimState(double)}.
+     */
+    public static void setExternalSimStepping(boolean external) {
+        m_externalSimStepping = external;
+    }
+
+    /**
+     * Steps the drivetrain simulation by a fixed period, for use with
+     * {@link #setExternalSimStepping(boolean)}.
+     *
+     * @param dt Simulated time to step, in seconds
+     */
+    public void stepSimState(double dt) {
+        updateSimState(dt, RobotController.getBatteryVoltage());
     }
 
     private void startSimThread() {
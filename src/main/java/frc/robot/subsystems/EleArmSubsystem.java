@@ -12,18 +12,29 @@ import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.RobotController;
-import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.simulation.FlywheelSim;
 import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.quixlib.devices.QuixSignalHistory;
+import frc.quixlib.devices.QuixSignalSampler;
+import frc.quixlib.math.BilinearGrid;
+import frc.quixlib.math.DoubleLerpTable;
 import frc.quixlib.math.MathUtils;
 import frc.quixlib.motorcontrol.QuixTalonFX;
-import frc.quixlib.planning.QuixTrapezoidProfile;
+import frc.quixlib.planning.QuixSCurveProfile;
+import frc.quixlib.profiling.LoopProfiler;
+import frc.quixlib.simulation.QuixMechanismSimLoop;
+import frc.quixlib.telemetry.QuixBooleanPublisher;
+import frc.quixlib.telemetry.QuixDoublePublisher;
+import frc.quixlib.telemetry.QuixTelemetry.Level;
 import frc.quixlib.viz.Link2d;
 import frc.robot.Constants;
+import frc.robot.Robot;
+import java.io.File;
+import java.io.IOException;
 
 public class EleArmSubsystem extends SubsystemBase {
   public final DigitalInput m_beamBreak = new DigitalInput(Constants.EleArm.beamBreakPort);
@@ -102,9 +113,59 @@ public class EleArmSubsystem extends SubsystemBase {
               .setReverseSoftLimit(Constants.EleArm.minAngle)
               .setForwardSoftLimit(Constants.EleArm.maxAngle));
 
-  private QuixTrapezoidProfile m_armProfile;
+  // High-rate arm state history for latency-compensated queries.
+  private final QuixSignalHistory m_armAngleHistory =
+      QuixSignalSampler.getInstance(Constants.EleArm.armMotorID.CANbusName)
+          .register(m_armAngleMotor.sensorPositionSignal());
+  private final QuixSignalHistory m_armVelocityHistory =
+      QuixSignalSampler.getInstance(Constants.EleArm.armMotorID.CANbusName)
+          .register(m_armAngleMotor.sensorVelocitySignal());
+
+  private final QuixSCurveProfile.Constraints m_armProfileConstraints;
+  private final QuixSCurveProfile.Constraints m_armSlowProfileConstraints;
+  // The profile and its reference state are reused so that periodic() does not allocate.
+  private final QuixSCurveProfile m_armProfile;
   private final Timer m_armTimer = new Timer();
-  private State m_armState = new State(m_armAngleMotor.getSensorPosition(), 0.0);
+  private final State m_armState = new State(m_armAngleMotor.getSensorPosition(), 0.0);
+  // When set, m_armState is driven externally instead of by m_armProfile.
+  private boolean m_followingArmReference = false;
+
+  // Not thread-safe, so each subsystem owns its own table.
+  private final DoubleLerpTable m_shotMap = new DoubleLerpTable(Constants.EleArm.shotMapRows);
+  // Reusable output of shot map lookups.
+  private final double[] m_shotSolution = new double[m_shotMap.getNumOutputs()];
+  // Memory-mapped shoot-on-the-move grid, or null if it failed to load.
+  private final BilinearGrid m_shotGrid = loadShotGrid();
+
+  private final LoopProfiler.Section m_periodicProfile =
+      LoopProfiler.getSection("EleArmSubsystem.periodic()");
+
+  // Telemetry
+  private final QuixBooleanPublisher m_beamBreakPublisher =
+      new QuixBooleanPublisher("EleArm: Beam Break", Level.kCompetition);
+  private final QuixDoublePublisher m_currentArmAnglePublisher =
+      new QuixDoublePublisher("EleArm: Current Arm Angle (deg)", Level.kCompetition);
+  private final QuixDoublePublisher m_targetArmAnglePublisher =
+      new QuixDoublePublisher("EleArm: Target Arm Angle (deg)", Level.kDebug);
+  private final QuixDoublePublisher m_armAngleErrorPublisher =
+      new QuixDoublePublisher("EleArm: Arm Angle Error (deg)", Level.kDebug);
+  private final QuixDoublePublisher m_redirectVelocityPublisher =
+      new QuixDoublePublisher(
+          "EleArm: Current Redirect Roller Velocity (rad per sec)", Level.kDebug);
+  private final QuixDoublePublisher m_feedVelocityPublisher =
+      new QuixDoublePublisher("EleArm: Current Feed Roller Velocity (rad per sec)", Level.kDebug);
+  private final QuixDoublePublisher m_topLaunchVelocityPublisher =
+      new QuixDoublePublisher(
+          "EleArm: Current Top Launch Wheel Velocity (rad per sec)", Level.kCompetition);
+  private final QuixDoublePublisher m_lowerLaunchVelocityPublisher =
+      new QuixDoublePublisher(
+          "EleArm: Current Lower Launch Wheel Velocity (rad per sec)", Level.kCompetition);
+  private final QuixDoublePublisher m_feedCurrentPublisher =
+      new QuixDoublePublisher("EleArm: Current Feed Roller Current (A)", Level.kDebug);
+  private final QuixDoublePublisher m_topLaunchCurrentPublisher =
+      new QuixDoublePublisher("EleArm: Current Top Launch Wheel Current (A)", Level.kDebug);
+  private final QuixDoublePublisher m_lowerLaunchCurrentPublisher =
+      new QuixDoublePublisher("EleArm: Current Lower Launch Wheel Current (A)", Level.kDebug);
 
   private boolean m_beamBreakLastState = false;
   private Double m_beamBreakFeedPosition = null;
@@ -115,11 +176,14 @@ public class EleArmSubsystem extends SubsystemBase {
       Link2d EleArmTopWheelViz,
       Link2d EleArmBottomWheelViz,
       Link2d EleArmFeedRollerViz,
-      Link2d EleArmRedirectRollerViz) {
-
+      Link2d EleArmRedirectRollerViz,
+      QuixSCurveProfile.Constraints armProfileConstraints,
+      QuixSCurveProfile.Constraints armSlowProfileConstraints) {
+    m_armProfileConstraints = armProfileConstraints;
+    m_armSlowProfileConstraints = armSlowProfileConstraints;
     m_armProfile =
-        new QuixTrapezoidProfile(
-            Constants.EleArm.armTrapConstraints,
+        new QuixSCurveProfile(
+            m_armProfileConstraints,
             new State(Constants.EleArm.startingAngle, 0.0),
             m_armState);
     m_armTimer.start();
@@ -132,6 +196,15 @@ public class EleArmSubsystem extends SubsystemBase {
     m_EleArmBottomWheelViz = EleArmBottomWheelViz;
     m_EleArmFeedRollerViz = EleArmFeedRollerViz;
     m_EleArmRedirectRollerViz = EleArmRedirectRollerViz;
+
+    if (Robot.isSimulation()) {
+      m_simLoop.start();
+    }
+  }
+
+  /** Returns the constraints of normal arm moves. */
+  public QuixSCurveProfile.Constraints getArmProfileConstraints() {
+    return m_armProfileConstraints;
   }
 
   public boolean hasPiece() {
@@ -147,6 +220,16 @@ public class EleArmSubsystem extends SubsystemBase {
     return m_armAngleMotor.getSensorPosition();
   }
 
+  /** Returns the arm angle interpolated at the given Phoenix timestamp in seconds. */
+  public double getArmAngleAt(double timestamp) {
+    return m_armAngleHistory.getInterpolated(timestamp);
+  }
+
+  /** Returns the arm angular velocity interpolated at the given Phoenix timestamp in seconds. */
+  public double getArmVelocityAt(double timestamp) {
+    return m_armVelocityHistory.getInterpolated(timestamp);
+  }
+
   public boolean isAtLaunchVelocity(double launchVelocity, double tolerance) {
     return Math.abs(launchVelocity - m_upperLaunchMotor.getSensorVelocity()) <= tolerance
         && Math.abs(launchVelocity - m_lowerLaunchMotor.getSensorVelocity()) <= tolerance;
@@ -162,29 +245,35 @@ public class EleArmSubsystem extends SubsystemBase {
   }
 
   public void setArmAngle(double targetArmAngle) {
-    m_armProfile =
-        new QuixTrapezoidProfile(
-            Constants.EleArm.armTrapConstraints,
-            new State(
-                MathUtils.clamp(
-                    targetArmAngle, Constants.EleArm.minAngle, Constants.EleArm.maxAngle),
-                0.0),
-            m_armState);
+    m_followingArmReference = false;
+    m_armProfile.reset(
+        m_armProfileConstraints,
+        MathUtils.clamp(targetArmAngle, Constants.EleArm.minAngle, Constants.EleArm.maxAngle),
+        0.0,
+        m_armState.position,
+        m_armState.velocity);
     m_armTimer.reset();
   }
 
   public void setArmAngleSlow(double targetArmAngle) {
-    m_armProfile =
-        new QuixTrapezoidProfile(
-            Constants.EleArm.armSlowTrapConstraints,
-            new State(
-                MathUtils.clamp(
-                    targetArmAngle, Constants.EleArm.minAngle, Constants.EleArm.maxAngle),
-                0.0),
-            m_armState);
+    m_followingArmReference = false;
+    m_armProfile.reset(
+        m_armSlowProfileConstraints,
+        MathUtils.clamp(targetArmAngle, Constants.EleArm.minAngle, Constants.EleArm.maxAngle),
+        0.0,
+        m_armState.position,
+        m_armState.velocity);
     m_armTimer.reset();
   }
 
+  /** Tracks an externally profiled reference, e.g. from a move coordinated with the elevator. */
+  public void setArmReference(double angle, double velocity) {
+    m_armState.position =
+        MathUtils.clamp(angle, Constants.EleArm.minAngle, Constants.EleArm.maxAngle);
+    m_armState.velocity = velocity;
+    m_followingArmReference = true;
+  }
+
   public void setFeedVelocity(double velocity) {
     final double feedffVolts = Constants.EleArm.feedRollerFeedforward.calculate(velocity);
     if (velocity == 0.0) {
@@ -249,6 +338,52 @@ public class EleArmSubsystem extends SubsystemBase {
     return radsPerSec;
   }
 
+  /**
+   * Looks up the arm angle, launch velocity and time of flight for a shot from the given distance
+   * into {@code out}, indexed by the Constants.EleArm.shotMap*Index constants. Does not allocate.
+   * Must only be called from the main robot thread.
+   */
+  public void getShotSolution(double distance, double[] out) {
+    m_shotMap.get(distance, out);
+  }
+
+  /** Sets the arm angle and launch velocity from the shot map for the given distance in meters. */
+  public void setShotForDistance(double distance) {
+    getShotSolution(distance, m_shotSolution);
+    setArmAngle(m_shotSolution[Constants.EleArm.shotMapArmAngleIndex]);
+    setLaunchVelocity(m_shotSolution[Constants.EleArm.shotMapLaunchVelocityIndex]);
+  }
+
+  /**
+   * Looks up the shot solution for a shot from the given distance while the robot moves at the
+   * given radial velocity (m/s, positive away from the target) into {@code out}. Uses the
+   * precomputed shot grid, or the stationary shot map if the grid is unavailable.
+   */
+  public void getShotSolution(double distance, double radialVelocity, double[] out) {
+    if (m_shotGrid == null) {
+      getShotSolution(distance, out);
+    } else {
+      m_shotGrid.get(distance, radialVelocity, out);
+    }
+  }
+
+  /** Sets the arm angle and launch velocity for a shot on the move. */
+  public void setShotForDistance(double distance, double radialVelocity) {
+    getShotSolution(distance, radialVelocity, m_shotSolution);
+    setArmAngle(m_shotSolution[Constants.EleArm.shotMapArmAngleIndex]);
+    setLaunchVelocity(m_shotSolution[Constants.EleArm.shotMapLaunchVelocityIndex]);
+  }
+
+  private static BilinearGrid loadShotGrid() {
+    final File file = new File(Filesystem.getDeployDirectory(), Constants.EleArm.shotGridFile);
+    try {
+      return BilinearGrid.load(file);
+    } catch (IOException | IllegalArgumentException e) {
+      DriverStation.reportError("Failed to load shot grid " + file + ": " + e.getMessage(), false);
+      return null;
+    }
+  }
+
   public void disabledInit() {
     m_armAngleMotor.setBrakeMode(true);
   }
@@ -260,9 +395,12 @@ public class EleArmSubsystem extends SubsystemBase {
   @Override
   public void periodic() {
     // This method will be called once per scheduler run
+    m_periodicProfile.start();
+
     if (DriverStation.isDisabled()) {
       // Update state to sensor state when disabled to prevent jumps on enable.
-      m_armState = new State(m_armAngleMotor.getSensorPosition(), 0.0);
+      m_armState.position = m_armAngleMotor.getSensorPosition();
+      m_armState.velocity = 0.0;
       setArmAngle(m_armAngleMotor.getSensorPosition());
     }
 
@@ -279,9 +417,11 @@ public class EleArmSubsystem extends SubsystemBase {
       m_beamBreakLastState = false;
     }
 
-    SmartDashboard.putBoolean("EleArm: Beam Break", m_beamBreak.get());
+    m_beamBreakPublisher.set(m_beamBreak.get());
 
-    m_armState = m_armProfile.calculate(m_armTimer.get());
+    if (!m_followingArmReference) {
+      m_armProfile.calculateInto(m_armTimer.get(), m_armState);
+    }
     m_armAngleMotor.setPositionSetpoint(
         Constants.EleArm.armPositionPIDSlot,
         m_armState.position,
@@ -290,40 +430,27 @@ public class EleArmSubsystem extends SubsystemBase {
         -Constants.EleArm.armFeedForward.calculate(
             -m_armState.position + Constants.EleArm.cgOffset, -m_armState.velocity));
 
-    SmartDashboard.putNumber(
-        "EleArm: Current Arm Angle (deg)",
-        Units.radiansToDegrees(m_armAngleMotor.getSensorPosition()));
-    SmartDashboard.putNumber(
-        "EleArm: Target Arm Angle (deg)", Units.radiansToDegrees(m_armState.position));
-    SmartDashboard.putNumber(
-        "EleArm: Arm Angle Error (deg)",
+    m_currentArmAnglePublisher.set(Units.radiansToDegrees(m_armAngleMotor.getSensorPosition()));
+    m_targetArmAnglePublisher.set(Units.radiansToDegrees(m_armState.position));
+    m_armAngleErrorPublisher.set(
         Units.radiansToDegrees(m_armState.position - m_armAngleMotor.getSensorPosition()));
 
-    SmartDashboard.putNumber(
-        "EleArm: Current Redirect Roller Velocity (rad per sec)",
-        m_redirectRollerMotor.getSensorVelocity());
-    SmartDashboard.putNumber(
-        "EleArm: Current Feed Roller Velocity (rad per sec)",
-        m_feedRollerMotor.getSensorVelocity());
-    SmartDashboard.putNumber(
-        "EleArm: Current Top Launch Wheel Velocity (rad per sec)",
-        m_upperLaunchMotor.getSensorVelocity());
-    SmartDashboard.putNumber(
-        "EleArm: Current Lower Launch Wheel Velocity (rad per sec)",
-        m_lowerLaunchMotor.getSensorVelocity());
-
-    SmartDashboard.putNumber(
-        "EleArm: Current Feed Roller Current (A)", m_feedRollerMotor.getStatorCurrent());
-    SmartDashboard.putNumber(
-        "EleArm: Current Top Launch Wheel Current (A)", m_upperLaunchMotor.getStatorCurrent());
-    SmartDashboard.putNumber(
-        "EleArm: Current Lower Launch Wheel Current (A)", m_lowerLaunchMotor.getStatorCurrent());
+    m_redirectVelocityPublisher.set(m_redirectRollerMotor.getSensorVelocity());
+    m_feedVelocityPublisher.set(m_feedRollerMotor.getSensorVelocity());
+    m_topLaunchVelocityPublisher.set(m_upperLaunchMotor.getSensorVelocity());
+    m_lowerLaunchVelocityPublisher.set(m_lowerLaunchMotor.getSensorVelocity());
+
+    m_feedCurrentPublisher.set(m_feedRollerMotor.getStatorCurrent());
+    m_topLaunchCurrentPublisher.set(m_upperLaunchMotor.getStatorCurrent());
+    m_lowerLaunchCurrentPublisher.set(m_lowerLaunchMotor.getStatorCurrent());
 
     m_upperLaunchMotor.logMotorState();
     m_lowerLaunchMotor.logMotorState();
     m_feedRollerMotor.logMotorState();
     m_redirectRollerMotor.logMotorState();
     m_armAngleMotor.logMotorState();
+
+    m_periodicProfile.stop();
   }
 
   // --- BEGIN STUFF FOR SIMULATION ---
@@ -361,6 +488,9 @@ static final DCMotor m_simMotorBottom = DCMotor.getKrakenX60Foc(1);
               m_simMotorBottom);
 
 
+  private final QuixMechanismSimLoop m_simLoop =
+      Robot.isSimulation() ? new QuixMechanismSimLoop("EleArmSim", this::stepSim) : null;
+
   // Visualization
   private final Link2d m_EleArmArmViz;
   private final Link2d m_EleArmTopWheelViz;
@@ -368,61 +498,61 @@ static final DCMotor m_simMotorBottom = DCMotor.getKrakenX60Foc(1);
   private final Link2d m_EleArmFeedRollerViz;
   private final Link2d m_EleArmRedirectRollerViz;
 
-  @Override
-  public void simulationPeriodic() {
-    // This method will be called once per scheduler run during simulation
-    m_armSim.setInput(-m_armAngleMotor.getPercentOutput() * RobotController.getBatteryVoltage());
-    m_armSim.update(TimedRobot.kDefaultPeriod);
+  // Runs on the sim loop's thread.
+  private void stepSim(final double dt) {
+    m_armSim.setInput(-m_armAngleMotor.getSimMotorVoltage());
+    m_armSim.update(dt);
     // Arm is simulated backwards because gravity acting on a horizontal arm needs to be at
     // zero degrees
     m_armAngleMotor.setSimSensorPositionAndVelocity(
         -m_armSim.getAngleRads() - Constants.EleArm.startingAngle,
-        m_armSim.getVelocityRadPerSec(),
-        TimedRobot.kDefaultPeriod,
+        -m_armSim.getVelocityRadPerSec(),
+        dt,
         Constants.EleArm.armMotorRatio);
 
-        m_rollerSimTop.setInput(
-        m_upperLaunchMotor.getPercentOutput() * RobotController.getBatteryVoltage());
-        m_rollerSimTop.update(TimedRobot.kDefaultPeriod);
+    m_rollerSimTop.setInput(m_upperLaunchMotor.getSimMotorVoltage());
+    m_rollerSimTop.update(dt);
     m_upperLaunchMotor.setSimSensorVelocity(
-        m_rollerSimTop.getAngularVelocityRadPerSec(),
-        TimedRobot.kDefaultPeriod,
-        Constants.EleArm.upperMotorRatio);
+        m_rollerSimTop.getAngularVelocityRadPerSec(), dt, Constants.EleArm.upperMotorRatio);
 
-        m_rollerSimBottom.setInput(
-        m_lowerLaunchMotor.getPercentOutput() * RobotController.getBatteryVoltage());
-        m_rollerSimBottom.update(TimedRobot.kDefaultPeriod);
+    m_rollerSimBottom.setInput(m_lowerLaunchMotor.getSimMotorVoltage());
+    m_rollerSimBottom.update(dt);
     m_lowerLaunchMotor.setSimSensorVelocity(
-        m_rollerSimBottom.getAngularVelocityRadPerSec(),
-        TimedRobot.kDefaultPeriod,
-        Constants.EleArm.lowerMotorRatio);
+        m_rollerSimBottom.getAngularVelocityRadPerSec(), dt, Constants.EleArm.lowerMotorRatio);
+  }
 
-    
+  @Override
+  public void simulationPeriodic() {
+    // This method will be called once per scheduler run during simulation
+    final double armAngle;
+    final double topVelocity;
+    final double bottomVelocity;
+    synchronized (m_simLoop) {
+      armAngle = m_armSim.getAngleRads();
+      topVelocity = m_rollerSimTop.getAngularVelocityRadPerSec();
+      bottomVelocity = m_rollerSimBottom.getAngularVelocityRadPerSec();
+    }
 
     m_EleArmArmViz.setRelativeTransform(
         new Transform2d(
             Constants.Viz.EleArmArmPivotX,
             0.0,
             // TODO: Figure out how to do this without hardcoding
-            Rotation2d.fromRadians(
-                m_armSim.getAngleRads() - Constants.Viz.elevatorAngle.getRadians())));
+            Rotation2d.fromRadians(armAngle - Constants.Viz.elevatorAngle.getRadians())));
     m_EleArmTopWheelViz.setRelativeTransform(
         new Transform2d(
             Constants.Viz.EleArmWheelX,
             Constants.Viz.EleArmTopWheelY,
             Rotation2d.fromRadians(
                 m_EleArmTopWheelViz.getRelativeTransform().getRotation().getRadians()
-                    + m_rollerSimTop.getAngularVelocityRadPerSec()
-                        * Constants.Viz.angularVelocityScalar)));
+                    + topVelocity * Constants.Viz.angularVelocityScalar)));
     m_EleArmBottomWheelViz.setRelativeTransform(
         new Transform2d(
             Constants.Viz.EleArmWheelX,
             Constants.Viz.EleArmBottomWheelY,
             Rotation2d.fromRadians(
                 m_EleArmBottomWheelViz.getRelativeTransform().getRotation().getRadians()
-                    + m_rollerSimBottom.getAngularVelocityRadPerSec()
-                        * Constants.Viz.angularVelocityScalar)));
-   
+                    + bottomVelocity * Constants.Viz.angularVelocityScalar)));
   }
   // --- END STUFF FOR SIMULATION ---
 }
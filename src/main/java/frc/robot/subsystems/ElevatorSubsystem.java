@@ -8,14 +8,20 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj.RobotController;
-import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.simulation.ElevatorSim;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.quixlib.devices.QuixSignalHistory;
+import frc.quixlib.devices.QuixSignalSampler;
 import frc.quixlib.motorcontrol.QuixTalonFX;
+import frc.quixlib.planning.QuixSCurveProfile;
+import frc.quixlib.profiling.LoopProfiler;
+import frc.quixlib.simulation.QuixMechanismSimLoop;
+import frc.quixlib.telemetry.QuixDoublePublisher;
+import frc.quixlib.telemetry.QuixTelemetry.Level;
 import frc.quixlib.viz.Link2d;
 import frc.robot.Constants;
+import frc.robot.Robot;
 
 public class ElevatorSubsystem extends SubsystemBase {
   private final QuixTalonFX m_motor =
@@ -35,14 +41,53 @@ public class ElevatorSubsystem extends SubsystemBase {
               .setReverseSoftLimit(Constants.Elevator.minHeight)
               .setForwardSoftLimit(Constants.Elevator.maxHeight));
 
+  // High-rate carriage height history for latency-compensated queries.
+  private final QuixSignalHistory m_heightHistory =
+      QuixSignalSampler.getInstance(Constants.Elevator.motorID.CANbusName)
+          .register(m_motor.sensorPositionSignal());
+
+  // Passed to every Motion Magic request, so they override the acceleration in the motor config.
+  private final double m_maxAcceleration;
+  private final QuixSCurveProfile.Constraints m_profileConstraints;
+
   private double m_targetHeight = Constants.Elevator.minHeight;
+  // When following an external reference, its velocity. Otherwise, Motion Magic profiles the move.
+  private boolean m_followingReference = false;
+  private double m_referenceVelocity = 0.0;
+
+  private final LoopProfiler.Section m_periodicProfile =
+      LoopProfiler.getSection("ElevatorSubsystem.periodic()");
+
+  // Telemetry
+  private final QuixDoublePublisher m_currentHeightPublisher =
+      new QuixDoublePublisher("Elevator: Current Height (in)", Level.kCompetition);
+  private final QuixDoublePublisher m_targetHeightPublisher =
+      new QuixDoublePublisher("Elevator: Target Height (in)", Level.kDebug);
+
+  /**
+   * @param maxAcceleration Max carriage acceleration in m/s^2, normally
+   *     Constants.Elevator.maxAcceleration.
+   */
+  public ElevatorSubsystem(Link2d elevatorCarriageViz, double maxAcceleration) {
+    m_maxAcceleration = maxAcceleration;
+    m_profileConstraints =
+        new QuixSCurveProfile.Constraints(
+            Constants.Elevator.maxVelocity, maxAcceleration, Constants.Elevator.maxJerk);
 
-  public ElevatorSubsystem(Link2d elevatorCarriageViz) {
     // Show scheduler status in SmartDashboard.
     SmartDashboard.putData(this);
 
     // Setup viz.
     m_elevatorCarriageViz = elevatorCarriageViz;
+
+    if (Robot.isSimulation()) {
+      m_simLoop.start();
+    }
+  }
+
+  /** Returns the constraints of the Motion Magic profile, for moves coordinated with the arm. */
+  public QuixSCurveProfile.Constraints getProfileConstraints() {
+    return m_profileConstraints;
   }
 
   public boolean readyForIntake() {
@@ -53,8 +98,21 @@ public class ElevatorSubsystem extends SubsystemBase {
     return m_motor.getSensorPosition();
   }
 
+  /** Returns the height interpolated at the given Phoenix timestamp in seconds. */
+  public double getHeightAt(double timestamp) {
+    return m_heightHistory.getInterpolated(timestamp);
+  }
+
   public void setHeight(double targetHeight) {
     m_targetHeight = targetHeight;
+    m_followingReference = false;
+  }
+
+  /** Tracks an externally profiled reference, e.g. from a move coordinated with the arm. */
+  public void setHeightReference(double height, double velocity) {
+    m_targetHeight = height;
+    m_referenceVelocity = velocity;
+    m_followingReference = true;
   }
 
   public boolean isAtHeight(double height, double tolerance) {
@@ -64,19 +122,27 @@ public class ElevatorSubsystem extends SubsystemBase {
   @Override
   public void periodic() {
     // This method will be called once per scheduler run
-    m_motor.setDynamicMotionMagicPositionSetpoint(
-        Constants.Elevator.motorPositionSlot,
-        m_targetHeight,
-        Constants.Elevator.maxVelocity,
-        Constants.Elevator.maxAcceleration,
-        Constants.Elevator.maxJerk);
-
-    SmartDashboard.putNumber(
-        "Elevator: Current Height (in)", Units.metersToInches(m_motor.getSensorPosition()));
-    SmartDashboard.putNumber(
-        "Elevator: Target Height (in)", Units.metersToInches(m_motor.getClosedLoopReference()));
+    m_periodicProfile.start();
+
+    if (m_followingReference) {
+      // Pass the reference velocity so that the slot's kV applies, as it does under Motion Magic.
+      m_motor.setPositionSetpoint(
+          Constants.Elevator.motorPositionSlot, m_targetHeight, m_referenceVelocity, 0.0);
+    } else {
+      m_motor.setDynamicMotionMagicPositionSetpoint(
+          Constants.Elevator.motorPositionSlot,
+          m_targetHeight,
+          Constants.Elevator.maxVelocity,
+          m_maxAcceleration,
+          Constants.Elevator.maxJerk);
+    }
+
+    m_currentHeightPublisher.set(Units.metersToInches(m_motor.getSensorPosition()));
+    m_targetHeightPublisher.set(Units.metersToInches(m_motor.getClosedLoopReference()));
 
     m_motor.logMotorState();
+
+    m_periodicProfile.stop();
   }
 
   // --- BEGIN STUFF FOR SIMULATION ---
@@ -91,24 +157,33 @@ public class ElevatorSubsystem extends SubsystemBase {
           true,
           0);
 
+  private final QuixMechanismSimLoop m_simLoop =
+      Robot.isSimulation() ? new QuixMechanismSimLoop("ElevatorSim", this::stepSim) : null;
+
   // Visualization
   private final Link2d m_elevatorCarriageViz;
 
-  @Override
-  public void simulationPeriodic() {
-    // This method will be called once per scheduler run during simulation
-    m_elevatorSim.setInput(m_motor.getPercentOutput() * RobotController.getBatteryVoltage());
-    m_elevatorSim.update(TimedRobot.kDefaultPeriod);
+  // Runs on the sim loop's thread.
+  private void stepSim(final double dt) {
+    m_elevatorSim.setInput(m_motor.getSimMotorVoltage());
+    m_elevatorSim.update(dt);
     m_motor.setSimSensorPositionAndVelocity(
         m_elevatorSim.getPositionMeters(),
-        // m_elevatorSim.getVelocityMetersPerSecond(), // TODO: Figure out why this causes jitter
-        0.0,
-        TimedRobot.kDefaultPeriod,
+        m_elevatorSim.getVelocityMetersPerSecond(),
+        dt,
         Constants.Elevator.motorRatio);
+  }
+
+  @Override
+  public void simulationPeriodic() {
+    // This method will be called once per scheduler run during simulation
+    final double height;
+    synchronized (m_simLoop) {
+      height = m_elevatorSim.getPositionMeters();
+    }
 
     // Update carriage viz.
-    m_elevatorCarriageViz.setRelativeTransform(
-        new Transform2d(m_elevatorSim.getPositionMeters(), 0.0, new Rotation2d()));
+    m_elevatorCarriageViz.setRelativeTransform(new Transform2d(height, 0.0, new Rotation2d()));
   }
   // --- END STUFF FOR SIMULATION ---
 }
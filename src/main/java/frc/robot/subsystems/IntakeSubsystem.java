@@ -10,16 +10,20 @@ import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.system.plant.LinearSystemId;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.RobotController;
-import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.simulation.FlywheelSim;
 import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.quixlib.motorcontrol.QuixTalonFX;
+import frc.quixlib.profiling.LoopProfiler;
+import frc.quixlib.simulation.QuixMechanismSimLoop;
+import frc.quixlib.telemetry.QuixBooleanPublisher;
+import frc.quixlib.telemetry.QuixDoublePublisher;
+import frc.quixlib.telemetry.QuixTelemetry.Level;
 import frc.quixlib.viz.Link2d;
 import frc.robot.Constants;
+import frc.robot.Robot;
 
 public class IntakeSubsystem extends SubsystemBase {
   public final DigitalInput m_beamBreak = new DigitalInput(Constants.Intake.beamBreakPort);
@@ -55,6 +59,23 @@ public class IntakeSubsystem extends SubsystemBase {
   private double m_targetAngle = Constants.Intake.startingAngle;
   private Timer m_lastPieceTimer = new Timer();
 
+  private final LoopProfiler.Section m_periodicProfile =
+      LoopProfiler.getSection("IntakeSubsystem.periodic()");
+
+  // Telemetry
+  private final QuixBooleanPublisher m_beamBreakPublisher =
+      new QuixBooleanPublisher("Intake: Beam Break", Level.kCompetition);
+  private final QuixDoublePublisher m_currentAnglePublisher =
+      new QuixDoublePublisher("Intake: Current Angle (deg)", Level.kCompetition);
+  private final QuixDoublePublisher m_targetAnglePublisher =
+      new QuixDoublePublisher("Intake: Target Angle (deg)", Level.kDebug);
+  private final QuixDoublePublisher m_currentVelocityPublisher =
+      new QuixDoublePublisher("Intake: Current Velocity (deg per sec)", Level.kDebug);
+  private final QuixDoublePublisher m_targetVelocityPublisher =
+      new QuixDoublePublisher("Intake: Target Velocity (deg per sec)", Level.kDebug);
+  private final QuixDoublePublisher m_rollerVelocityPublisher =
+      new QuixDoublePublisher("Intake: Current Roller Velocity (rad per sec)", Level.kDebug);
+
   public IntakeSubsystem(Link2d intakeArmViz, Link2d intakeRollerViz) {
     m_lastPieceTimer.start();
     m_lastPieceTimer.reset();
@@ -65,6 +86,10 @@ public class IntakeSubsystem extends SubsystemBase {
     // Setup viz.
     m_intakeArmViz = intakeArmViz;
     m_intakeRollerViz = intakeRollerViz;
+
+    if (Robot.isSimulation()) {
+      m_simLoop.start();
+    }
   }
 
   public boolean hasPiece() {
@@ -109,31 +134,28 @@ public class IntakeSubsystem extends SubsystemBase {
   @Override
   public void periodic() {
     // This method will be called once per scheduler run
+    m_periodicProfile.start();
+
     if (hasPiece()) {
       m_lastPieceTimer.reset();
     }
 
-    SmartDashboard.putBoolean("Intake: Beam Break", m_beamBreak.get());
+    m_beamBreakPublisher.set(m_beamBreak.get());
 
     m_deployMotor.setMotionMagicPositionSetpoint(
         Constants.Intake.deployPositionSlot, m_targetAngle);
 
-    SmartDashboard.putNumber(
-        "Intake: Current Angle (deg)", Units.radiansToDegrees(m_deployMotor.getSensorPosition()));
-    SmartDashboard.putNumber(
-        "Intake: Target Angle (deg)",
-        Units.radiansToDegrees(m_deployMotor.getClosedLoopReference()));
-    SmartDashboard.putNumber(
-        "Intake: Current Velocity (deg per sec)",
-        Units.radiansToDegrees(m_deployMotor.getSensorVelocity()));
-    SmartDashboard.putNumber(
-        "Intake: Target Velocity (deg per sec)",
+    m_currentAnglePublisher.set(Units.radiansToDegrees(m_deployMotor.getSensorPosition()));
+    m_targetAnglePublisher.set(Units.radiansToDegrees(m_deployMotor.getClosedLoopReference()));
+    m_currentVelocityPublisher.set(Units.radiansToDegrees(m_deployMotor.getSensorVelocity()));
+    m_targetVelocityPublisher.set(
         Units.radiansToDegrees(m_deployMotor.getClosedLoopReferenceSlope()));
-    SmartDashboard.putNumber(
-        "Intake: Current Roller Velocity (rad per sec)", m_rollerMotor.getSensorVelocity());
+    m_rollerVelocityPublisher.set(m_rollerMotor.getSensorVelocity());
 
     m_rollerMotor.logMotorState();
     m_deployMotor.logMotorState();
+
+    m_periodicProfile.stop();
   }
 
   // --- BEGIN STUFF FOR SIMULATION ---
@@ -157,43 +179,52 @@ public class IntakeSubsystem extends SubsystemBase {
           m_simMotor);
 
           
+  private final QuixMechanismSimLoop m_simLoop =
+      Robot.isSimulation() ? new QuixMechanismSimLoop("IntakeSim", this::stepSim) : null;
+
   // Visualization
   private final Link2d m_intakeArmViz;
   private final Link2d m_intakeRollerViz;
 
-  @Override
-  public void simulationPeriodic() {
-    // This method will be called once per scheduler run during simulation
-    m_armSim.setInput(m_deployMotor.getPercentOutput() * RobotController.getBatteryVoltage());
-    m_armSim.update(TimedRobot.kDefaultPeriod);
+  // Runs on the sim loop's thread.
+  private void stepSim(final double dt) {
+    m_armSim.setInput(m_deployMotor.getSimMotorVoltage());
+    m_armSim.update(dt);
     m_deployMotor.setSimSensorPositionAndVelocity(
         m_armSim.getAngleRads() - Constants.Intake.startingAngle,
-        // m_armSim.getVelocityRadPerSec(), // TODO: Figure out why this causes jitter
-        0.0,
-        TimedRobot.kDefaultPeriod,
+        m_armSim.getVelocityRadPerSec(),
+        dt,
         Constants.Intake.deployMotorRatio);
 
-    m_rollerSim.setInput(m_rollerMotor.getPercentOutput() * RobotController.getBatteryVoltage());
-    m_rollerSim.update(TimedRobot.kDefaultPeriod);
+    m_rollerSim.setInput(m_rollerMotor.getSimMotorVoltage());
+    m_rollerSim.update(dt);
     m_rollerMotor.setSimSensorVelocity(
-        m_rollerSim.getAngularVelocityRadPerSec(),
-        TimedRobot.kDefaultPeriod,
-        Constants.Intake.deployMotorRatio);
+        m_rollerSim.getAngularVelocityRadPerSec(), dt, Constants.Intake.rollerMotorRatio);
+  }
+
+  @Override
+  public void simulationPeriodic() {
+    // This method will be called once per scheduler run during simulation
+    final double armAngle;
+    final double rollerVelocity;
+    synchronized (m_simLoop) {
+      armAngle = m_armSim.getAngleRads();
+      rollerVelocity = m_rollerSim.getAngularVelocityRadPerSec();
+    }
 
     // Update arm viz.
     m_intakeArmViz.setRelativeTransform(
         new Transform2d(
             Constants.Viz.intakePivotX,
             Constants.Viz.intakePivotY,
-            Rotation2d.fromRadians(m_armSim.getAngleRads())));
+            Rotation2d.fromRadians(armAngle)));
     m_intakeRollerViz.setRelativeTransform(
         new Transform2d(
             Constants.Viz.intakeArmLength,
             0.0,
             Rotation2d.fromRadians(
                 m_intakeRollerViz.getRelativeTransform().getRotation().getRadians()
-                    + m_rollerSim.getAngularVelocityRadPerSec()
-                        * Constants.Viz.angularVelocityScalar)));
+                    + rollerVelocity * Constants.Viz.angularVelocityScalar)));
   }
   // --- END STUFF FOR SIMULATION ---
 }
@@ -0,0 +1,169 @@
+package frc.quixlib.planning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
+import org.junit.jupiter.api.Test;
+
+class QuixSCurveProfileTest {
+  // The arm's constraints.
+  private static final QuixSCurveProfile.Constraints kConstraints =
+      new QuixSCurveProfile.Constraints(12.5, 120.0, 2400.0);
+  private static final double kDt = 1e-5;
+  private static final double kEpsilon = 1e-6;
+
+  @Test
+  void cruisesAtMaxVelocityOverLongMoves() {
+    final QuixSCurveProfile profile = check(kConstraints, 10.0, 0.0, 0.0, 0.0);
+    assertEquals(kConstraints.maxVelocity, profile.getPeakVelocity(), kEpsilon);
+  }
+
+  @Test
+  void reachesMaxAccelerationWithoutCruising() {
+    // Long enough to reach max acceleration but not max velocity, so the peak is solved in closed
+    // form.
+    final QuixSCurveProfile profile = check(kConstraints, 1.0, 0.0, 0.0, 0.0);
+    assertTrue(profile.getPeakVelocity() < kConstraints.maxVelocity);
+    assertEquals(kConstraints.maxAcceleration, maxAcceleration(profile), 1e-2);
+  }
+
+  @Test
+  void shortMovesNeverReachMaxAcceleration() {
+    // Too short to reach max acceleration, so the peak is solved by bisection.
+    final QuixSCurveProfile profile = check(kConstraints, 0.01, 0.0, 0.0, 0.0);
+    assertTrue(maxAcceleration(profile) < kConstraints.maxAcceleration);
+  }
+
+  @Test
+  void movesInTheNegativeDirection() {
+    final QuixSCurveProfile profile = check(kConstraints, -2.0, 0.0, 1.0, 0.0);
+    assertTrue(profile.getPeakVelocity() < 0.0);
+  }
+
+  @Test
+  void handlesNonZeroInitialAndGoalVelocities() {
+    check(kConstraints, 2.0, 3.0, 0.0, 5.0);
+    check(kConstraints, 2.0, -3.0, 0.0, 5.0);
+    // Starts moving away from the goal.
+    check(kConstraints, 1.0, 0.0, 0.0, -6.0);
+  }
+
+  @Test
+  void overshootsWhenItCannotStopInTime() {
+    final double goal = 0.2;
+    final QuixSCurveProfile profile = check(kConstraints, goal, 0.0, 0.0, 10.0);
+    assertTrue(profile.getPeakVelocity() < 0.0, "the profile should come back to the goal");
+    double maxPosition = Double.NEGATIVE_INFINITY;
+    for (double t = 0.0; t < profile.totalTime(); t += kDt) {
+      maxPosition = Math.max(maxPosition, profile.calculate(t).position);
+    }
+    assertTrue(maxPosition > goal, "the profile should move past the goal");
+  }
+
+  @Test
+  void clampsInitialAndGoalVelocitiesToMaxVelocity() {
+    final QuixSCurveProfile profile = check(kConstraints, 5.0, 20.0, 0.0, 20.0);
+    assertEquals(kConstraints.maxVelocity, profile.calculate(0.0).velocity, kEpsilon);
+  }
+
+  @Test
+  void zeroJerkIsATrapezoidProfile() {
+    final QuixSCurveProfile.Constraints constraints =
+        new QuixSCurveProfile.Constraints(12.5, 120.0, 0.0);
+    final QuixSCurveProfile profile = check(constraints, 3.0, 0.0, 0.0, 0.0);
+    // A trapezoid profile takes v / a to reach max velocity.
+    final double rampTime = constraints.maxVelocity / constraints.maxAcceleration;
+    assertEquals(constraints.maxVelocity, profile.calculate(rampTime).velocity, 1e-9);
+    assertEquals(3.0 / constraints.maxVelocity + rampTime, profile.totalTime(), kEpsilon);
+  }
+
+  @Test
+  void sampleIntoMatchesCalculate() {
+    final QuixSCurveProfile profile =
+        new QuixSCurveProfile(kConstraints, new State(1.0, 0.0), new State(0.0, 2.0));
+    final int n = 200;
+    final double dt = profile.totalTime() / (n - 20);
+    final double[] pos = new double[n];
+    final double[] vel = new double[n];
+    profile.sampleInto(-5 * dt, dt, n, pos, vel);
+    for (int i = 0; i < n; i++) {
+      final State state = profile.calculate(-5 * dt + i * dt);
+      assertEquals(state.position, pos[i], 1e-12, "position of sample " + i);
+      assertEquals(state.velocity, vel[i], 1e-12, "velocity of sample " + i);
+    }
+  }
+
+  /**
+   * Checks that the profile ends at the goal, that position and velocity are continuous throughout,
+   * including at segment boundaries, and that velocity, acceleration and jerk stay within the
+   * constraints.
+   */
+  private static QuixSCurveProfile check(
+      final QuixSCurveProfile.Constraints constraints,
+      final double goalPosition,
+      final double goalVelocity,
+      final double initialPosition,
+      final double initialVelocity) {
+    final QuixSCurveProfile profile =
+        new QuixSCurveProfile(
+            constraints,
+            new State(goalPosition, goalVelocity),
+            new State(initialPosition, initialVelocity));
+    final double totalTime = profile.totalTime();
+    final double expectedGoalVelocity =
+        Math.max(Math.min(goalVelocity, constraints.maxVelocity), -constraints.maxVelocity);
+
+    // The state just before the end must already be at the goal, not jump to it.
+    final State end = profile.calculate(totalTime - 1e-9);
+    assertEquals(goalPosition, end.position, kEpsilon, "final position");
+    assertEquals(expectedGoalVelocity, end.velocity, kEpsilon, "final velocity");
+    assertEquals(goalPosition, profile.calculate(totalTime).position, 0.0);
+
+    // The trapezoid rule is exact for the cubic position of a jerk-limited profile, but not across
+    // the acceleration steps of a trapezoid profile.
+    final double positionTolerance =
+        constraints.maxJerk > 0.0 ? 1e-9 : constraints.maxAcceleration * kDt * kDt;
+    State previous = profile.calculate(0.0);
+    double previousAcceleration = 0.0;
+    // Past the end, the profile holds the goal position even if the goal velocity isn't zero.
+    for (double t = kDt; t < totalTime; t += kDt) {
+      final State state = profile.calculate(t);
+      final double acceleration = (state.velocity - previous.velocity) / kDt;
+      final double expectedDeltaPosition = 0.5 * (previous.velocity + state.velocity) * kDt;
+      assertEquals(
+          expectedDeltaPosition,
+          state.position - previous.position,
+          positionTolerance,
+          "position is discontinuous at t = " + t);
+      assertTrue(
+          Math.abs(acceleration) <= constraints.maxAcceleration * (1.0 + kEpsilon),
+          "acceleration " + acceleration + " exceeds the limit at t = " + t);
+      assertTrue(
+          Math.abs(state.velocity) <= constraints.maxVelocity * (1.0 + kEpsilon),
+          "velocity " + state.velocity + " exceeds the limit at t = " + t);
+      if (constraints.maxJerk > 0.0) {
+        // Finite differences straddling a boundary see at most one step's worth of jerk.
+        final double jerk = (acceleration - previousAcceleration) / kDt;
+        assertTrue(
+            Math.abs(jerk) <= constraints.maxJerk * (1.0 + 1e-3),
+            "jerk " + jerk + " exceeds the limit at t = " + t);
+      }
+      previous = state;
+      previousAcceleration = acceleration;
+    }
+    return profile;
+  }
+
+  // The largest acceleration magnitude over the profile, by finite differences.
+  private static double maxAcceleration(final QuixSCurveProfile profile) {
+    double max = 0.0;
+    State previous = profile.calculate(0.0);
+    for (double t = kDt; t <= profile.totalTime(); t += kDt) {
+      final State state = profile.calculate(t);
+      max = Math.max(max, Math.abs(state.velocity - previous.velocity) / kDt);
+      previous = state;
+    }
+    return max;
+  }
+}
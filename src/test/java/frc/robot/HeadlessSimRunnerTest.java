@@ -0,0 +1,40 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import org.junit.jupiter.api.Test;
+
+// HeadlessSimRunner can only be created once per process, so build.gradle forks a JVM per test
+// class.
+class HeadlessSimRunnerTest {
+  private static final String kAuto = "Tests";
+  // Phoenix firmware sim can't be stepped, so this trades firmware update rate for speed. The
+  // error bounds below leave room for the coarser loops.
+  private static final double kSpeedup = 10.0;
+  private static final double kTimeoutS = 15.0;
+  private static final double kMaxTranslationErrorM = 0.25;
+  private static final double kMaxRotationErrorRad = Math.toRadians(10.0);
+
+  @Test
+  void autoFinishesAtTheEndOfItsPath() throws Exception {
+    final Pose2d goal = HeadlessSimRunner.getAutoEndPose(kAuto);
+    try (HeadlessSimRunner sim = new HeadlessSimRunner(kSpeedup)) {
+      sim.selectAuto(kAuto);
+      final double completionTimeS = sim.runAutoUntilDone(kTimeoutS);
+      final Pose2d pose = sim.getPose();
+
+      assertFalse(Double.isNaN(completionTimeS), "auto did not finish within " + kTimeoutS + " s");
+      final double translationError = pose.getTranslation().getDistance(goal.getTranslation());
+      assertTrue(
+          translationError < kMaxTranslationErrorM,
+          "final pose " + pose + " is " + translationError + " m from " + goal);
+      final double rotationError =
+          Math.abs(pose.getRotation().minus(goal.getRotation()).getRadians());
+      assertTrue(
+          rotationError < kMaxRotationErrorRad,
+          "final pose " + pose + " is " + Math.toDegrees(rotationError) + " deg from " + goal);
+    }
+  }
+}